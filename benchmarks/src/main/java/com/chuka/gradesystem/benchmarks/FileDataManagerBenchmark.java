@@ -0,0 +1,89 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.service.FileDataManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Single-record CRUD against FileDataManager, in snapshot mode (every
+ * mutation rewrites the affected files) and journaled mode (every mutation
+ * appends to the write-ahead log, with periodic compaction).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileDataManagerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private Path dataDir;
+    private SyntheticData data;
+    private FileDataManager manager;
+    private String[] studentIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = SyntheticData.useScratchDataDir();
+        data = SyntheticData.generate(students);
+        data.writeDataFiles();
+        manager = new FileDataManager(journaled);
+        studentIds = new String[students];
+        for (int i = 0; i < students; i++) {
+            studentIds[i] = SyntheticData.studentId(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticData.deleteRecursively(dataDir);
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 7919) % students;
+        return cursor;
+    }
+
+    @Benchmark
+    public Student findStudentById() {
+        return manager.findStudentById(studentIds[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<Grade> getGradesByStudent() {
+        return manager.getGradesByStudent(studentIds[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean updateStudent() {
+        Student student = manager.findStudentById(studentIds[nextIndex()]);
+        student.setYearOfStudy(student.getYearOfStudy() % 4 + 1);
+        return manager.updateStudent(student);
+    }
+
+    @Benchmark
+    public boolean saveGrade() {
+        Student student = manager.findStudentById(studentIds[nextIndex()]);
+        Grade existing = student.getGrades().get(0);
+        Grade updated = new Grade(student, existing.getCourse(),
+                (existing.getScore() + 1) % 100, existing.getSemester());
+        return manager.saveGrade(updated);
+    }
+
+    @Benchmark
+    public boolean saveAndDeleteCourse() {
+        Course course = new Course("BNCH 999", "Benchmark Course", 3, "Dr. Bench");
+        return manager.saveCourse(course) & manager.deleteCourse(course.getCourseCode());
+    }
+}
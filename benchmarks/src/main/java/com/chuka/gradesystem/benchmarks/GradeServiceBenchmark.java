@@ -0,0 +1,96 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.service.ConcurrentDataManager;
+import com.chuka.gradesystem.service.GradeColumns;
+import com.chuka.gradesystem.service.GradeService;
+import com.chuka.gradesystem.service.GradeStatistics;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * GPA and statistics calculations, per student and over the whole cohort.
+ * Runs in memory; the CGPA cache and the columnar store are fed by a
+ * memory-only DataManager.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private List<Student> studentList;
+    private List<Grade> allGrades;
+    private GradeService stateless;
+    private GradeService cached;
+    private GradeColumns columns;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData data = SyntheticData.generate(students);
+        ConcurrentDataManager manager = new ConcurrentDataManager();
+        data.populate(manager);
+        studentList = data.getStudents();
+        allGrades = data.getGrades();
+        stateless = new GradeService();
+        cached = new GradeService(manager);
+        columns = new GradeColumns(manager);
+    }
+
+    private Student nextStudent() {
+        cursor = (cursor + 7919) % students;
+        return studentList.get(cursor);
+    }
+
+    @Benchmark
+    public double calculateGPAPerStudent() {
+        return stateless.calculateGPA(nextStudent().getGrades());
+    }
+
+    @Benchmark
+    public double calculateGPACohort() {
+        return stateless.calculateGPA(allGrades);
+    }
+
+    @Benchmark
+    public double calculateCGPACached() {
+        return cached.calculateCGPA(nextStudent());
+    }
+
+    @Benchmark
+    public String getGradeStatisticsPerStudent() {
+        return stateless.getGradeStatistics(nextStudent().getGrades());
+    }
+
+    @Benchmark
+    public String getGradeStatisticsCohort() {
+        return stateless.getGradeStatistics(allGrades);
+    }
+
+    @Benchmark
+    public double columnarGPAPerStudent() {
+        return columns.gpa(nextStudent().getStudentId());
+    }
+
+    @Benchmark
+    public double[] columnarGPAAllStudents() {
+        return columns.allGpas();
+    }
+
+    @Benchmark
+    public GradeStatistics.Summary statisticsCohort() {
+        return GradeStatistics.of(allGrades);
+    }
+
+    @Benchmark
+    public GradeStatistics.Summary columnarStatisticsCohort() {
+        return GradeStatistics.of(columns);
+    }
+}
@@ -0,0 +1,84 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.service.MappedDataManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Grade queries and updates against MappedDataManager, whose grades stay
+ * in the memory-mapped store and are materialized per query, and the cost
+ * of opening an existing store. Compare with FileDataManagerBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedDataManagerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private Path dataDir;
+    private MappedDataManager manager;
+    private String[] studentIds;
+    private String[] courseCodes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = SyntheticData.useScratchDataDir();
+        SyntheticData data = SyntheticData.generate(students);
+        data.writeDataFiles();
+        // The first open imports grades.dat into the store
+        manager = new MappedDataManager();
+        studentIds = new String[students];
+        for (int i = 0; i < students; i++) {
+            studentIds[i] = SyntheticData.studentId(i);
+        }
+        courseCodes = data.getCourses().stream().map(Course::getCourseCode).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        SyntheticData.deleteRecursively(dataDir);
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 7919) % students;
+        return cursor;
+    }
+
+    @Benchmark
+    public List<Grade> getGradesByStudent() {
+        return manager.getGradesByStudent(studentIds[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<Grade> getGradesByCourse() {
+        return manager.getGradesByCourse(courseCodes[nextIndex() % courseCodes.length]);
+    }
+
+    @Benchmark
+    public boolean saveGrade() {
+        String studentId = studentIds[nextIndex()];
+        Grade existing = manager.getGradesByStudent(studentId).get(0);
+        Grade updated = new Grade(existing.getStudent(), existing.getCourse(),
+                (existing.getScore() + 1) % 100, existing.getSemester());
+        return manager.saveGrade(updated);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int open() throws IOException {
+        try (MappedDataManager opened = new MappedDataManager()) {
+            return opened.loadAllStudents().size();
+        }
+    }
+}
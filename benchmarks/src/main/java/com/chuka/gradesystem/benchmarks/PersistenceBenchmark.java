@@ -0,0 +1,75 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.service.FileDataManager;
+import com.chuka.gradesystem.service.FlushPolicy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Whole-dataset load and save through FileDataManager. Changes are held
+ * back until saveAllData, and before each call one student, one course and
+ * one grade are changed, so every call rewrites all three files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private Path dataDir;
+    private FileDataManager manager;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = SyntheticData.useScratchDataDir();
+        SyntheticData.generate(students).writeDataFiles();
+        manager = new FileDataManager();
+        manager.setFlushPolicy(FlushPolicy.after(Integer.MAX_VALUE, 0));
+    }
+
+    /**
+     * Leaves one change in each collection for saveAllData to write
+     */
+    @State(Scope.Thread)
+    public static class Changes {
+        @Setup(Level.Invocation)
+        public void change(PersistenceBenchmark benchmark) {
+            benchmark.cursor = (benchmark.cursor + 7919) % benchmark.students;
+            FileDataManager manager = benchmark.manager;
+            Student student = manager.findStudentById(SyntheticData.studentId(benchmark.cursor));
+            student.setYearOfStudy(student.getYearOfStudy() % 4 + 1);
+            manager.updateStudent(student);
+            Grade existing = student.getGrades().get(0);
+            Course course = existing.getCourse();
+            String instructor = course.getInstructor();
+            course.setInstructor(instructor.endsWith(".")
+                    ? instructor.substring(0, instructor.length() - 1) : instructor + ".");
+            manager.updateCourse(course);
+            manager.saveGrade(new Grade(student, course, (existing.getScore() + 1) % 100, existing.getSemester()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public boolean loadAllData() {
+        return manager.loadAllData();
+    }
+
+    @Benchmark
+    public boolean saveAllData(Changes changes) {
+        return manager.saveAllData();
+    }
+}
@@ -0,0 +1,179 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.service.ConcurrentDataManager;
+import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.util.Constants;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic generator for realistic benchmark datasets.
+ *
+ * Every student gets GRADES_PER_STUDENT grades in distinct courses, with
+ * scores drawn from a normal distribution around a pass mark. Course count
+ * grows with the cohort (one course per 50 students, at least 40), so
+ * per-course queries stay comparable across sizes. All generated values
+ * pass ValidationUtil.
+ */
+public final class SyntheticData {
+    public static final int GRADES_PER_STUDENT = 8;
+    public static final long DEFAULT_SEED = 20251205L;
+
+    private static final String DATA_DIR_PROPERTY = "gradesystem.dataDir";
+    private static final String[] FIRST_NAMES = {
+        "Amina", "Brian", "Cynthia", "David", "Esther", "Felix", "Grace", "Hassan",
+        "Irene", "James", "Kevin", "Lucy", "Mercy", "Nelson", "Otieno", "Purity"
+    };
+    private static final String[] LAST_NAMES = {
+        "Wanjiru", "Kamau", "Mutua", "Achieng", "Kiprop", "Njeri", "Omondi", "Chebet",
+        "Mwangi", "Nekesa", "Barasa", "Wambui", "Kariuki", "Atieno", "Muriithi", "Jeptoo"
+    };
+    private static final String[] COURSE_PREFIXES = {
+        "ACSC", "MATH", "STAT", "PHYS", "CHEM", "BIOL", "ECON", "COMM"
+    };
+
+    private final List<Student> students;
+    private final List<Course> courses;
+    private final List<Grade> grades;
+
+    private SyntheticData(List<Student> students, List<Course> courses, List<Grade> grades) {
+        this.students = students;
+        this.courses = courses;
+        this.grades = grades;
+    }
+
+    public static SyntheticData generate(int studentCount) {
+        return generate(studentCount, DEFAULT_SEED);
+    }
+
+    public static SyntheticData generate(int studentCount, long seed) {
+        Random random = new Random(seed);
+        int courseCount = Math.max(40, studentCount / 50);
+        List<Course> courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            courses.add(new Course(courseCode(i), "Course Unit " + (i + 1), 2 + random.nextInt(3),
+                    "Dr. " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]));
+        }
+
+        List<Student> students = new ArrayList<>(studentCount);
+        List<Grade> grades = new ArrayList<>(studentCount * GRADES_PER_STUDENT);
+        Set<Integer> picked = new LinkedHashSet<>();
+        for (int i = 0; i < studentCount; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Student student = new Student(
+                    "P" + (100000 + i),
+                    first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + i + "@chuka.ac.ke",
+                    String.format("07%08d", i),
+                    studentId(i),
+                    Constants.DEPARTMENTS[random.nextInt(Constants.DEPARTMENTS.length)],
+                    1 + random.nextInt(4));
+            students.add(student);
+
+            picked.clear();
+            while (picked.size() < Math.min(GRADES_PER_STUDENT, courseCount)) {
+                picked.add(random.nextInt(courseCount));
+            }
+            for (int c : picked) {
+                Grade grade = new Grade(student, courses.get(c), score(random),
+                        Constants.SEMESTERS[random.nextInt(Constants.SEMESTERS.length)]);
+                student.addGrade(grade);
+                grades.add(grade);
+            }
+        }
+        return new SyntheticData(Collections.unmodifiableList(students),
+                Collections.unmodifiableList(courses), Collections.unmodifiableList(grades));
+    }
+
+    public static String studentId(int index) {
+        return String.format("CS%06d", index);
+    }
+
+    public static String courseCode(int index) {
+        return COURSE_PREFIXES[index % COURSE_PREFIXES.length] + " " + (100 + index / COURSE_PREFIXES.length);
+    }
+
+    private static double score(Random random) {
+        double score = 62 + random.nextGaussian() * 14;
+        return Math.round(Math.max(0, Math.min(100, score)) * 2) / 2.0;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public List<Grade> getGrades() {
+        return grades;
+    }
+
+    /**
+     * Adds the dataset to a DataManager. The records are shared, not copied,
+     * so populate a manager only once per generated dataset.
+     */
+    public void populate(DataManager target) {
+        for (Course course : courses) {
+            target.saveCourse(course);
+        }
+        for (Student student : students) {
+            student.getGrades().clear();
+            target.saveStudent(student);
+        }
+        target.saveGrades(grades);
+    }
+
+    /**
+     * Writes the dataset to the data files in one snapshot, going through the
+     * in-memory ConcurrentDataManager so that large cohorts are not rewritten
+     * once per record.
+     */
+    public void writeDataFiles() {
+        ConcurrentDataManager writer = new ConcurrentDataManager(true);
+        writer.clearAllData();
+        populate(writer);
+        if (!writer.saveAllData()) {
+            throw new IllegalStateException("Could not write synthetic data files");
+        }
+    }
+
+    /**
+     * Points the data managers at a fresh temporary directory so benchmarks
+     * never touch the application's data/ folder. Must run before the first
+     * DataManager is created in the JVM; JMH forks give each trial a new one.
+     * @return the created directory, or null if -Dgradesystem.dataDir was given
+     *         and is used as is
+     */
+    public static Path useScratchDataDir() throws IOException {
+        if (System.getProperty(DATA_DIR_PROPERTY) != null) {
+            return null;
+        }
+        Path dir = Files.createTempDirectory("gradesystem-bench");
+        System.setProperty(DATA_DIR_PROPERTY, dir.toString());
+        return dir;
+    }
+
+    public static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.chuka.gradesystem.benchmarks;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.util.ValidationUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Validation of one full student record (ID, name, email, phone) and of
+ * course codes, measured per record. Inputs come from the synthetic
+ * cohort; every eighth record is corrupted so the rejection paths are
+ * exercised too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private static final int RECORDS = 1024;
+
+    private String[] studentIds;
+    private String[] names;
+    private String[] emails;
+    private String[] phones;
+    private String[] courseCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData data = SyntheticData.generate(RECORDS);
+        studentIds = new String[RECORDS];
+        names = new String[RECORDS];
+        emails = new String[RECORDS];
+        phones = new String[RECORDS];
+        courseCodes = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            Student student = data.getStudents().get(i);
+            boolean corrupt = i % 8 == 7;
+            studentIds[i] = corrupt ? student.getStudentId().toLowerCase() : student.getStudentId();
+            names[i] = corrupt ? student.getName() + "3" : student.getName();
+            emails[i] = corrupt ? student.getEmail().replace('@', ' ') : student.getEmail();
+            phones[i] = corrupt ? student.getPhone().substring(1) : student.getPhone();
+            courseCodes[i] = corrupt ? "X" + SyntheticData.courseCode(i) : SyntheticData.courseCode(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int validateStudentRecords() {
+        int valid = 0;
+        for (int i = 0; i < RECORDS; i++) {
+            if (ValidationUtil.isValidStudentId(studentIds[i])
+                    && ValidationUtil.isValidName(names[i])
+                    && ValidationUtil.isValidEmail(emails[i])
+                    && ValidationUtil.isValidPhone(phones[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int validateEmails() {
+        int valid = 0;
+        for (String email : emails) {
+            if (ValidationUtil.isValidEmail(email)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int validateCourseCodes() {
+        int valid = 0;
+        for (String code : courseCodes) {
+            if (ValidationUtil.isValidCourseCode(code)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
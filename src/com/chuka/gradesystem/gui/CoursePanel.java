@@ -2,35 +2,35 @@ package com.chuka.gradesystem.gui;
 
 import com.chuka.gradesystem.model.Course;
 import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.service.SearchService;
 import com.chuka.gradesystem.util.*;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.List;
 
 public class CoursePanel extends JPanel implements ActionListener, KeyListener {
     
     private DataManager dataManager;
+    private SearchService searchService;
     private JTable courseTable;
-    private DefaultTableModel tableModel;
+    private CourseTableModel tableModel;
+    private DebouncedSearch<Course> search;
     private JTextField courseCodeField, courseNameField, instructorField, searchField;
     private JSpinner creditsSpinner;
     private JButton addButton, updateButton, deleteButton, clearButton;
     
-    public CoursePanel(DataManager dataManager) {
+    public CoursePanel(DataManager dataManager, SearchService searchService) {
         this.dataManager = dataManager;
+        this.searchService = searchService;
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         initializeComponents();
-        refreshData();
     }
     
     private void initializeComponents() {
         // Table
-        tableModel = new DefaultTableModel(Constants.COURSE_COLUMNS, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new CourseTableModel(dataManager);
+        search = new DebouncedSearch<>(tableModel, searchService::searchCourses, searchService::matches);
         courseTable = new JTable(tableModel);
         courseTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         courseTable.addMouseListener(new MouseAdapter() {
@@ -77,13 +77,11 @@ public class CoursePanel extends JPanel implements ActionListener, KeyListener {
     }
     
     public void refreshData() {
-        tableModel.setRowCount(0);
-        for (Course course : dataManager.loadAllCourses()) {
-            tableModel.addRow(new Object[]{
-                course.getCourseCode(), course.getCourseName(), 
-                course.getCredits(), course.getInstructor()
-            });
-        }
+        tableModel.setFilter(null);
+    }
+    
+    public void refreshIfChanged() {
+        tableModel.reloadIfChanged();
     }
     
     @Override
@@ -99,8 +97,9 @@ public class CoursePanel extends JPanel implements ActionListener, KeyListener {
         Course course = new Course(courseCodeField.getText().trim(), courseNameField.getText().trim(),
                                   (Integer) creditsSpinner.getValue(), instructorField.getText().trim());
         if (dataManager.saveCourse(course)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Course added successfully!");
-            refreshData(); clearForm();
+            clearForm();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to add course!", "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -117,8 +116,9 @@ public class CoursePanel extends JPanel implements ActionListener, KeyListener {
         course.setCredits((Integer) creditsSpinner.getValue());
         course.setInstructor(instructorField.getText().trim());
         if (dataManager.updateCourse(course)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Course updated successfully!");
-            refreshData(); clearForm();
+            clearForm();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to update course!", "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -133,8 +133,9 @@ public class CoursePanel extends JPanel implements ActionListener, KeyListener {
         String courseCode = (String) tableModel.getValueAt(selectedRow, 0);
         int confirm = JOptionPane.showConfirmDialog(this, Constants.MSG_DELETE_CONFIRM, "Confirm Delete", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION && dataManager.deleteCourse(courseCode)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Course deleted successfully!");
-            refreshData(); clearForm();
+            clearForm();
         }
     }
     
@@ -168,24 +169,9 @@ public class CoursePanel extends JPanel implements ActionListener, KeyListener {
         return true;
     }
     
-    private void searchCourses(String query) {
-        tableModel.setRowCount(0);
-        for (Course course : dataManager.loadAllCourses()) {
-            if (course.getCourseCode().toLowerCase().contains(query.toLowerCase()) ||
-                course.getCourseName().toLowerCase().contains(query.toLowerCase()) ||
-                course.getInstructor().toLowerCase().contains(query.toLowerCase())) {
-                tableModel.addRow(new Object[]{
-                    course.getCourseCode(), course.getCourseName(), 
-                    course.getCredits(), course.getInstructor()
-                });
-            }
-        }
-    }
-    
     @Override public void keyTyped(KeyEvent e) {}
     @Override public void keyPressed(KeyEvent e) {}
     @Override public void keyReleased(KeyEvent e) {
-        String query = searchField.getText().trim();
-        if (query.isEmpty()) refreshData(); else searchCourses(query);
+        search.queryChanged(searchField.getText());
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.chuka.gradesystem.gui;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.service.DataChangeEvent;
+import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.util.Constants;
+
+/**
+ * CourseTableModel - Rows of the Courses table
+ */
+public class CourseTableModel extends RecordTableModel<Course> {
+
+    /**
+     * Constructor
+     * @param dataManager Data manager instance
+     */
+    public CourseTableModel(DataManager dataManager) {
+        super(dataManager, Constants.COURSE_COLUMNS, Course.class, dataManager::loadAllCourses,
+              DataChangeEvent.Type.COURSE_SAVED, DataChangeEvent.Type.COURSE_DELETED);
+    }
+
+    @Override
+    protected Object keyOf(Course course) {
+        return course.getCourseCode();
+    }
+
+    @Override
+    protected Object getColumnValue(Course course, int column) {
+        switch (column) {
+            case 0: return course.getCourseCode();
+            case 1: return course.getCourseName();
+            case 2: return course.getCredits();
+            case 3: return course.getInstructor();
+            default: return null;
+        }
+    }
+}
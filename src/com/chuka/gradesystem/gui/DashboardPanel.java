@@ -1,22 +1,31 @@
 package com.chuka.gradesystem.gui;
 
-import com.chuka.gradesystem.model.*;
 import com.chuka.gradesystem.service.*;
+import com.chuka.gradesystem.util.Constants;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
 
+/**
+ * DashboardPanel - Overview of the stored data
+ * 
+ * The figures come from DashboardStatistics, which keeps them current as
+ * the data changes, so showing the dashboard costs the same however many
+ * students are enrolled. The honor roll entries are formatted only when
+ * the list displays them.
+ */
 public class DashboardPanel extends JPanel {
     
     private DataManager dataManager;
-    private GradeService gradeService;
+    private DashboardStatistics statistics;
     private JLabel studentsLabel, coursesLabel, gradesLabel, avgGpaLabel;
     private JList<String> honorRollList;
     private JButton refreshButton;
+    private long shownVersion = -1; // data version the statistics were computed at
     
     public DashboardPanel(DataManager dataManager, GradeService gradeService) {
         this.dataManager = dataManager;
-        this.gradeService = gradeService;
+        this.statistics = new DashboardStatistics(dataManager, gradeService);
         setLayout(new BorderLayout(10, 10));
         initializeComponents();
         refreshData();
@@ -39,8 +48,11 @@ public class DashboardPanel extends JPanel {
         
         // Honor Roll panel
         JPanel honorRollPanel = new JPanel(new BorderLayout());
-        honorRollPanel.setBorder(BorderFactory.createTitledBorder("Honor Roll Students (GPA ≥ 3.5)"));
+        honorRollPanel.setBorder(BorderFactory.createTitledBorder(
+            String.format("Honor Roll Students (GPA ≥ %.1f)", Constants.HONOR_ROLL_MIN)));
         honorRollList = new JList<>();
+        // Size rows from a sample so the list never formats every entry
+        honorRollList.setPrototypeCellValue("S000000 - Firstname Lastname (GPA: 4.00)");
         honorRollPanel.add(new JScrollPane(honorRollList), BorderLayout.CENTER);
         
         // Refresh button
@@ -68,37 +80,36 @@ public class DashboardPanel extends JPanel {
         return label;
     }
     
+    /**
+     * Recompute the statistics only if the data changed since they were shown
+     */
+    public void refreshIfChanged() {
+        if (shownVersion != dataManager.getVersion()) {
+            refreshData();
+        }
+    }
+    
     public void refreshData() {
-        // Basic statistics
-        List<Student> students = dataManager.loadAllStudents();
-        List<Course> courses = dataManager.loadAllCourses();
-        List<Grade> grades = dataManager.loadAllGrades();
+        shownVersion = dataManager.getVersion();
         
-        studentsLabel.setText("Total Students: " + students.size());
-        coursesLabel.setText("Total Courses: " + courses.size());
-        gradesLabel.setText("Total Grades: " + grades.size());
+        studentsLabel.setText("Total Students: " + statistics.getStudentCount());
+        coursesLabel.setText("Total Courses: " + statistics.getCourseCount());
+        gradesLabel.setText("Total Grades: " + statistics.getGradeCount());
+        avgGpaLabel.setText(String.format("Average GPA: %.2f", statistics.getAverageGpa()));
         
-        // Average GPA
-        double totalGPA = 0;
-        int count = 0;
-        for (Student student : students) {
-            double gpa = gradeService.calculateCGPA(student);
-            if (gpa > 0) {
-                totalGPA += gpa;
-                count++;
+        List<CgpaStanding> honorRoll = statistics.getHonorRoll();
+        honorRollList.setModel(new AbstractListModel<String>() {
+            @Override
+            public int getSize() {
+                return honorRoll.size();
             }
-        }
-        double avgGPA = count > 0 ? totalGPA / count : 0;
-        avgGpaLabel.setText(String.format("Average GPA: %.2f", avgGPA));
-        
-        // Honor Roll
-        DefaultListModel<String> honorRollModel = new DefaultListModel<>();
-        for (Student student : students) {
-            if (gradeService.isHonorRoll(student)) {
-                honorRollModel.addElement(String.format("%s - %s (GPA: %.2f)", 
-                    student.getStudentId(), student.getName(), gradeService.calculateCGPA(student)));
+            
+            @Override
+            public String getElementAt(int index) {
+                CgpaStanding standing = honorRoll.get(index);
+                return String.format("%s - %s (GPA: %.2f)", standing.getStudent().getStudentId(),
+                    standing.getStudent().getName(), standing.getCgpa());
             }
-        }
-        honorRollList.setModel(honorRollModel);
+        });
     }
-}
\ No newline at end of file
+}
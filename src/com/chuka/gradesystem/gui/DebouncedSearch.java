@@ -0,0 +1,80 @@
+package com.chuka.gradesystem.gui;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * DebouncedSearch - Runs a table search after the user stops typing
+ *
+ * Each keystroke restarts a short timer; when it fires the query runs on
+ * a SwingWorker thread and the matches are handed to the table model on
+ * the event dispatch thread. Results of a query that was overtaken by a
+ * newer one are dropped.
+ *
+ * @param <T> record type shown in the table
+ */
+final class DebouncedSearch<T> {
+
+    private static final int DELAY_MS = 150;
+
+    private final RecordTableModel<T> model;
+    private final Function<String, List<T>> search;
+    private final BiPredicate<T, String> matches;
+    private final Timer timer;
+    private String query = "";
+    private int generation;
+
+    /**
+     * Constructor
+     * @param model Table model receiving the results
+     * @param search Runs a query; called off the event dispatch thread
+     * @param matches Tests one record against a query, for later changes
+     */
+    DebouncedSearch(RecordTableModel<T> model, Function<String, List<T>> search,
+                    BiPredicate<T, String> matches) {
+        this.model = model;
+        this.search = search;
+        this.matches = matches;
+        timer = new Timer(DELAY_MS, e -> runQuery());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Called on every keystroke with the current search text
+     * @param text Search text
+     */
+    void queryChanged(String text) {
+        query = text.trim();
+        timer.restart();
+    }
+
+    private void runQuery() {
+        final String current = query;
+        final int id = ++generation;
+        if (current.isEmpty()) {
+            model.setFilter(null);
+            return;
+        }
+        new SwingWorker<List<T>, Void>() {
+            @Override
+            protected List<T> doInBackground() {
+                return search.apply(current);
+            }
+
+            @Override
+            protected void done() {
+                if (id != generation) {
+                    return; // A newer query is running
+                }
+                try {
+                    model.showRecords(get(), record -> matches.test(record, current));
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error searching: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+}
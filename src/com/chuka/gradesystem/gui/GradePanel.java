@@ -4,27 +4,28 @@ import com.chuka.gradesystem.model.*;
 import com.chuka.gradesystem.service.*;
 import com.chuka.gradesystem.util.*;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class GradePanel extends JPanel implements ActionListener {
     
     private DataManager dataManager;
     private GradeService gradeService;
     private JTable gradeTable;
-    private DefaultTableModel tableModel;
+    private GradeTableModel tableModel;
     private JTextField studentIdField, courseCodeField, scoreField;
     private JComboBox<String> semesterCombo;
     private JLabel letterGradeLabel, gradePointLabel, gpaLabel;
+    private JButton importBtn;
     
     public GradePanel(DataManager dataManager, GradeService gradeService) {
         this.dataManager = dataManager;
         this.gradeService = gradeService;
         setLayout(new BorderLayout(10, 10));
         initializeComponents();
-        refreshData();
     }
     
     private void initializeComponents() {
@@ -76,19 +77,20 @@ public class GradePanel extends JPanel implements ActionListener {
         JButton addBtn = new JButton("Add Grade");
         JButton deleteBtn = new JButton("Delete");
         JButton clearBtn = new JButton("Clear");
+        importBtn = new JButton("Import CSV");
         
         addBtn.addActionListener(this);
         deleteBtn.addActionListener(this);
         clearBtn.addActionListener(this);
+        importBtn.addActionListener(this);
         
         buttonPanel.add(addBtn);
         buttonPanel.add(deleteBtn);
         buttonPanel.add(clearBtn);
+        buttonPanel.add(importBtn);
         
         // Table
-        tableModel = new DefaultTableModel(Constants.GRADE_COLUMNS, 0) {
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new GradeTableModel(dataManager);
         gradeTable = new JTable(tableModel);
         gradeTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
@@ -112,21 +114,11 @@ public class GradePanel extends JPanel implements ActionListener {
     }
     
     public void refreshData() {
-        tableModel.setRowCount(0);
-        for (Grade grade : dataManager.loadAllGrades()) {
-            if (grade.getStudent() != null && grade.getCourse() != null) {
-                tableModel.addRow(new Object[]{
-                    grade.getStudent().getStudentId(),
-                    grade.getStudent().getName(),
-                    grade.getCourse().getCourseCode(),
-                    grade.getCourse().getCourseName(),
-                    grade.getScore(),
-                    grade.getLetterGrade(),
-                    grade.getGradePoint(),
-                    grade.getSemester()
-                });
-            }
-        }
+        tableModel.reload();
+    }
+    
+    public void refreshIfChanged() {
+        tableModel.reloadIfChanged();
     }
     
     public void actionPerformed(ActionEvent e) {
@@ -134,6 +126,54 @@ public class GradePanel extends JPanel implements ActionListener {
         if (cmd.equals("Add Grade")) addGrade();
         else if (cmd.equals("Delete")) deleteGrade();
         else if (cmd.equals("Clear")) clearForm();
+        else if (cmd.equals("Import CSV")) importGrades();
+    }
+    
+    private void importGrades() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Grades (studentId, courseCode, score, semester)");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        GradeImportService importService = new GradeImportService(dataManager);
+        // Copied here on the EDT, where the data is changed; the rows are
+        // read in the background and saved back here
+        GradeImportService.Catalog catalog = importService.catalog();
+        importBtn.setEnabled(false);
+        
+        SwingWorker<GradeImportService.Parsed, Void> worker = new SwingWorker<GradeImportService.Parsed, Void>() {
+            @Override
+            protected GradeImportService.Parsed doInBackground() throws Exception {
+                return importService.parse(file, catalog);
+            }
+            
+            @Override
+            protected void done() {
+                importBtn.setEnabled(true);
+                try {
+                    showImportResult(importService.commit(get()));
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(GradePanel.this, "Error reading file: " + cause.getMessage(),
+                        "Import Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void showImportResult(GradeImportService.Result result) {
+        StringBuilder message = new StringBuilder(result.getSummary());
+        int shown = Math.min(10, result.getRejected().size());
+        for (int i = 0; i < shown; i++) {
+            message.append("\n").append(result.getRejected().get(i));
+        }
+        if (result.getRejected().size() > shown) {
+            message.append("\n...");
+        }
+        SaveFeedback.watch(this, dataManager);
+        JOptionPane.showMessageDialog(this, message.toString());
     }
     
     private void addGrade() {
@@ -155,8 +195,8 @@ public class GradePanel extends JPanel implements ActionListener {
         
         Grade grade = new Grade(student, course, score, semester);
         if (dataManager.saveGrade(grade)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Grade added successfully!");
-            refreshData();
             clearForm();
         }
     }
@@ -177,8 +217,8 @@ public class GradePanel extends JPanel implements ActionListener {
         if (student != null && course != null) {
             int confirm = JOptionPane.showConfirmDialog(this, "Delete this grade?");
             if (confirm == JOptionPane.YES_OPTION && dataManager.deleteGrade(student, course)) {
+                SaveFeedback.watch(this, dataManager);
                 JOptionPane.showMessageDialog(this, "Grade deleted!");
-                refreshData();
                 clearForm();
             }
         }
@@ -188,9 +228,9 @@ public class GradePanel extends JPanel implements ActionListener {
         try {
             double score = Double.parseDouble(scoreField.getText());
             if (score >= 0 && score <= 100) {
-                String letter = gradeService.getLetterGrade(score);
+                LetterGrade letter = gradeService.getLetterGrade(score);
                 double points = gradeService.getGradePoint(letter);
-                letterGradeLabel.setText(letter);
+                letterGradeLabel.setText(letter.name());
                 gradePointLabel.setText(String.format("%.1f", points));
             }
         } catch (Exception e) {
@@ -0,0 +1,66 @@
+package com.chuka.gradesystem.gui;
+
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.service.DataChangeEvent;
+import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.service.GradeKey;
+import com.chuka.gradesystem.util.Constants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GradeTableModel - Rows of the Grades table
+ *
+ * Student and course names are read through each grade when a row is
+ * painted, and are repainted when a student or course is edited.
+ */
+public class GradeTableModel extends RecordTableModel<Grade> {
+
+    /**
+     * Constructor
+     * @param dataManager Data manager instance
+     */
+    public GradeTableModel(DataManager dataManager) {
+        super(dataManager, Constants.GRADE_COLUMNS, Grade.class, () -> linkedGrades(dataManager),
+              DataChangeEvent.Type.GRADE_SAVED, DataChangeEvent.Type.GRADE_DELETED);
+    }
+
+    /**
+     * Grades with both a student and a course; others cannot be shown
+     */
+    private static List<Grade> linkedGrades(DataManager dataManager) {
+        List<Grade> grades = new ArrayList<>();
+        for (Grade grade : dataManager.loadAllGrades()) {
+            if (grade.getStudent() != null && grade.getCourse() != null) {
+                grades.add(grade);
+            }
+        }
+        return grades;
+    }
+
+    @Override
+    protected Object keyOf(Grade grade) {
+        return GradeKey.of(grade);
+    }
+
+    @Override
+    protected Object getColumnValue(Grade grade, int column) {
+        switch (column) {
+            case 0: return grade.getStudent().getStudentId();
+            case 1: return grade.getStudent().getName();
+            case 2: return grade.getCourse().getCourseCode();
+            case 3: return grade.getCourse().getCourseName();
+            case 4: return grade.getScore();
+            case 5: return grade.getLetterGrade();
+            case 6: return grade.getGradePoint();
+            case 7: return grade.getSemester();
+            default: return null;
+        }
+    }
+
+    @Override
+    protected boolean affectsDisplayedValues(DataChangeEvent event) {
+        return event.getType() == DataChangeEvent.Type.STUDENT_SAVED
+            || event.getType() == DataChangeEvent.Type.COURSE_SAVED;
+    }
+}
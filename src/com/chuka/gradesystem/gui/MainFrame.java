@@ -1,10 +1,14 @@
 package com.chuka.gradesystem.gui;
 
+import com.chuka.gradesystem.model.GradingScheme;
 import com.chuka.gradesystem.service.*;
 import com.chuka.gradesystem.util.Constants;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * MainFrame - Main Application Window
@@ -22,9 +26,20 @@ import java.awt.event.*;
  */
 public class MainFrame extends JFrame implements ActionListener {
     
+    // Journal changes are folded into the data files every 1000 changes or
+    // 5 minutes, checked every 10 seconds
+    private static final int FLUSH_AFTER_CHANGES = 1000;
+    private static final long FLUSH_AFTER_MS = 5 * 60 * 1000;
+    private static final int FLUSH_CHECK_MS = 10 * 1000;
+    
+    // -Dgradesystem.writeStats=true prints how much was written on exit
+    private static final String WRITE_STATS_PROPERTY = "gradesystem.writeStats";
+    
     // Service objects - COMPOSITION
     private DataManager dataManager;
+    private FileDataManager fileDataManager;
     private GradeService gradeService;
+    private SearchService searchService;
     
     // GUI Components
     private JTabbedPane tabbedPane;
@@ -34,18 +49,26 @@ public class MainFrame extends JFrame implements ActionListener {
     private ReportPanel reportPanel;
     private DashboardPanel dashboardPanel;
     
+    private JLabel statusLabel;
+    private long shownMillis;
+    
     // Menu components
     private JMenuBar menuBar;
     private JMenu fileMenu, editMenu, viewMenu, helpMenu;
-    private JMenuItem exitItem, aboutItem, refreshItem;
+    private JMenuItem exitItem, aboutItem, refreshItem, schemeItem;
     
     /**
      * Constructor - Initialize the main frame
      */
     public MainFrame() {
-        // Initialize services
-        dataManager = new FileDataManager();
-        gradeService = new GradeService();
+        long start = System.nanoTime();
+        
+        // Initialize services; grades are classified as they load, and the
+        // data files are read in the background while the window opens
+        GradingScheme.setCurrent(GradingScheme.loadConfigured());
+        CompletableFuture<Boolean> loaded = openDataManager();
+        gradeService = new GradeService(dataManager);
+        searchService = new SearchService(dataManager);
         
         // Set up the frame
         setTitle(Constants.WINDOW_TITLE);
@@ -65,7 +88,92 @@ public class MainFrame extends JFrame implements ActionListener {
         initializeComponents();
         
         // Set visible
+        setLoading(true);
         setVisible(true);
+        shownMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        loaded.thenAccept(this::dataLoaded);
+        
+        // Changes are made on the event dispatch thread, so flush there too
+        if (fileDataManager != null) {
+            new Timer(FLUSH_CHECK_MS, e -> fileDataManager.flushIfDue()).start();
+        }
+    }
+    
+    /**
+     * Open the SQL database named by -Dgradesystem.jdbcUrl, the mapped grade
+     * store if -Dgradesystem.storage=mapped, or else the data files, which
+     * are read in the background; exits if the chosen storage cannot be
+     * opened
+     * @return Completes with whether all data was loaded
+     */
+    private CompletableFuture<Boolean> openDataManager() {
+        try {
+            JdbcDataManager database = JdbcDataManager.openConfigured();
+            if (database != null) {
+                dataManager = database;
+                return CompletableFuture.completedFuture(true);
+            }
+        } catch (SQLException e) {
+            // Changes must not go elsewhere than the chosen database
+            JOptionPane.showMessageDialog(null,
+                "Could not open the database:\n" + e.getMessage(),
+                "Database Error", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        try {
+            MappedDataManager mapped = MappedDataManager.openConfigured();
+            if (mapped != null) {
+                dataManager = mapped;
+                return CompletableFuture.completedFuture(true);
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null,
+                "Could not open the grade store:\n" + e.getMessage(),
+                "Storage Error", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        fileDataManager = FileDataManager.openInBackground(true, true, SwingUtilities::invokeLater);
+        fileDataManager.setFlushPolicy(FlushPolicy.after(FLUSH_AFTER_CHANGES, FLUSH_AFTER_MS));
+        dataManager = fileDataManager;
+        return fileDataManager.whenLoaded();
+    }
+    
+    /**
+     * Called on the event dispatch thread once the data files are in memory;
+     * the panels have already reloaded through their change listeners
+     * @param success Whether every file was read
+     */
+    private void dataLoaded(boolean success) {
+        setLoading(false);
+        if (fileDataManager != null) {
+            statusLabel.setText(String.format("%s - Ready (window shown in %d ms, data loaded in %d ms)",
+                Constants.APP_NAME, shownMillis, fileDataManager.getLoadMillis()));
+        }
+        updateCurrentPanel(tabbedPane.getSelectedIndex());
+        if (!success) {
+            JOptionPane.showMessageDialog(this,
+                "Some data could not be loaded. See the console for details.",
+                "Load Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Block input to the panels while the data is loading
+     * @param loading Whether loading is in progress
+     */
+    private void setLoading(boolean loading) {
+        Component glassPane = getGlassPane();
+        if (loading) {
+            glassPane.addMouseListener(new MouseAdapter() { });
+            glassPane.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        } else {
+            for (MouseListener listener : glassPane.getMouseListeners()) {
+                glassPane.removeMouseListener(listener);
+            }
+        }
+        glassPane.setVisible(loading);
+        statusLabel.setText(Constants.APP_NAME + (loading ? " - Loading data..." : " - Ready"));
     }
     
     /**
@@ -81,8 +189,8 @@ public class MainFrame extends JFrame implements ActionListener {
         
         // Create panels
         dashboardPanel = new DashboardPanel(dataManager, gradeService);
-        studentPanel = new StudentPanel(dataManager);
-        coursePanel = new CoursePanel(dataManager);
+        studentPanel = new StudentPanel(dataManager, gradeService, searchService);
+        coursePanel = new CoursePanel(dataManager, searchService);
         gradePanel = new GradePanel(dataManager, gradeService);
         reportPanel = new ReportPanel(dataManager, gradeService);
         
@@ -93,10 +201,11 @@ public class MainFrame extends JFrame implements ActionListener {
         tabbedPane.addTab("Grades", new ImageIcon(), gradePanel, "Manage Grades");
         tabbedPane.addTab("Reports", new ImageIcon(), reportPanel, "Generate Reports");
         
-        // Add change listener to refresh panels when switched
+        // Add change listener to bring panels up to date when switched;
+        // they follow changes as they happen, so this is usually a no-op
         tabbedPane.addChangeListener(e -> {
             int selectedIndex = tabbedPane.getSelectedIndex();
-            refreshCurrentPanel(selectedIndex);
+            updateCurrentPanel(selectedIndex);
         });
         
         // Add tabbed pane to frame
@@ -122,11 +231,15 @@ public class MainFrame extends JFrame implements ActionListener {
         refreshItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F5, 0));
         refreshItem.addActionListener(this);
         
+        schemeItem = new JMenuItem("Grading Scheme...", KeyEvent.VK_G);
+        schemeItem.addActionListener(this);
+        
         exitItem = new JMenuItem("Exit", KeyEvent.VK_X);
         exitItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Q, InputEvent.CTRL_DOWN_MASK));
         exitItem.addActionListener(this);
         
         fileMenu.add(refreshItem);
+        fileMenu.add(schemeItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         
@@ -181,7 +294,7 @@ public class MainFrame extends JFrame implements ActionListener {
         JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
         statusBar.setBorder(BorderFactory.createEtchedBorder());
         
-        JLabel statusLabel = new JLabel(Constants.APP_NAME + " - Ready");
+        statusLabel = new JLabel(Constants.APP_NAME + " - Ready");
         statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
         
         statusBar.add(statusLabel);
@@ -190,7 +303,32 @@ public class MainFrame extends JFrame implements ActionListener {
     }
     
     /**
-     * Refresh the current panel
+     * Bring the current panel up to date, doing nothing if the data has
+     * not changed since it was last shown
+     * @param index Panel index
+     */
+    private void updateCurrentPanel(int index) {
+        switch (index) {
+            case 0:
+                dashboardPanel.refreshIfChanged();
+                break;
+            case 1:
+                studentPanel.refreshIfChanged();
+                break;
+            case 2:
+                coursePanel.refreshIfChanged();
+                break;
+            case 3:
+                gradePanel.refreshIfChanged();
+                break;
+            case 4:
+                reportPanel.refreshIfChanged();
+                break;
+        }
+    }
+    
+    /**
+     * Refresh the current panel from the data layer
      * @param index Panel index
      */
     private void refreshCurrentPanel(int index) {
@@ -226,9 +364,43 @@ public class MainFrame extends JFrame implements ActionListener {
         } else if (e.getSource() == refreshItem) {
             refreshCurrentPanel(tabbedPane.getSelectedIndex());
             JOptionPane.showMessageDialog(this, "Data refreshed successfully!");
+        } else if (e.getSource() == schemeItem) {
+            changeGradingScheme();
         }
     }
     
+    /**
+     * Load a grading scheme from a properties file and regrade every stored
+     * grade under it, after confirmation
+     */
+    private void changeGradingScheme() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Grading Scheme (current: " + GradingScheme.current().getName() + ")");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        GradingScheme scheme;
+        try {
+            scheme = GradingScheme.load(fileChooser.getSelectedFile());
+        } catch (IOException | IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, "Error loading grading scheme: " + ex.getMessage(),
+                "Grading Scheme Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int choice = JOptionPane.showConfirmDialog(this,
+            "Regrade every grade under " + scheme.getName() + "?",
+            "Confirm Grading Scheme", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+        int regraded = gradeService.applyGradingScheme(scheme);
+        SaveFeedback.watch(this, dataManager);
+        refreshCurrentPanel(tabbedPane.getSelectedIndex());
+        JOptionPane.showMessageDialog(this, String.format(
+            "%s is in use until the application exits; %d grades changed.\n" +
+            "Start with -D%s=<file> to keep it.", scheme.getName(), regraded, GradingScheme.CONFIG_PROPERTY));
+    }
+    
     /**
      * Exit application with confirmation
      */
@@ -242,8 +414,13 @@ public class MainFrame extends JFrame implements ActionListener {
         );
         
         if (choice == JOptionPane.YES_OPTION) {
-            // Save all data before exiting
+            // Save outstanding changes before exiting
             dataManager.saveAllData();
+            if (fileDataManager != null && Boolean.getBoolean(WRITE_STATS_PROPERTY)) {
+                System.out.println(String.format("Wrote %d bytes for %d changes (%.0f bytes per change)",
+                        fileDataManager.getBytesWritten(), fileDataManager.getMutationCount(),
+                        fileDataManager.getBytesPerMutation()));
+            }
             System.exit(0);
         }
     }
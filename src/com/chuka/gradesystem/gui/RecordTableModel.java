@@ -0,0 +1,266 @@
+package com.chuka.gradesystem.gui;
+
+import com.chuka.gradesystem.service.DataChangeEvent;
+import com.chuka.gradesystem.service.DataChangeListener;
+import com.chuka.gradesystem.service.DataManager;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * RecordTableModel - Read-only table model over records of the data layer
+ *
+ * Holds only references to the records; cell values are computed when
+ * the table asks for them, so opening a tab costs one reference copy of
+ * the record list plus formatting of the visible rows.
+ *
+ * Changes arrive as DataChangeEvents from the DataManager. They are
+ * collected and applied together on the event dispatch thread, firing
+ * row inserted / updated / deleted events for the rows that changed, so
+ * a bulk import results in a single table update. The model remembers the
+ * latest data version it has seen, so reloadIfChanged() costs nothing
+ * while the rows are current.
+ *
+ * @param <T> record type shown in each row
+ */
+public abstract class RecordTableModel<T> extends AbstractTableModel implements DataChangeListener {
+
+    private final DataManager dataManager;
+    private final String[] columns;
+    private final Class<T> recordType;
+    private final Supplier<List<T>> source;
+    private final DataChangeEvent.Type savedType;
+    private final DataChangeEvent.Type deletedType;
+
+    private List<T> rows = new ArrayList<>();
+    private Predicate<T> filter = record -> true;
+
+    // Row index by key; rebuilt on demand after rows are removed
+    private final Map<Object, Integer> positions = new HashMap<>();
+    private boolean positionsValid;
+
+    // Events waiting to be applied on the event dispatch thread
+    private final List<DataChangeEvent> pending = new ArrayList<>();
+    // Latest data version received, applied or queued
+    private final AtomicLong seenVersion = new AtomicLong(-1);
+
+    /**
+     * Constructor
+     * @param dataManager Data manager the records come from
+     * @param columns Column names
+     * @param recordType Class of the records shown
+     * @param source Supplies the full list of records
+     * @param savedType Event type for an inserted or updated record
+     * @param deletedType Event type for a deleted record
+     */
+    protected RecordTableModel(DataManager dataManager, String[] columns, Class<T> recordType,
+                               Supplier<List<T>> source,
+                               DataChangeEvent.Type savedType, DataChangeEvent.Type deletedType) {
+        this.dataManager = dataManager;
+        this.columns = columns;
+        this.recordType = recordType;
+        this.source = source;
+        this.savedType = savedType;
+        this.deletedType = deletedType;
+        dataManager.addChangeListener(this);
+        reload();
+    }
+
+    /**
+     * Key identifying the record, e.g. its student ID
+     */
+    protected abstract Object keyOf(T record);
+
+    /**
+     * Value shown in one cell of the record's row
+     */
+    protected abstract Object getColumnValue(T record, int column);
+
+    /**
+     * Whether an event for another kind of record changes what the rows
+     * display, e.g. a grade change alters a student's GPA column
+     */
+    protected boolean affectsDisplayedValues(DataChangeEvent event) {
+        return false;
+    }
+
+    /**
+     * Reload all rows from the data layer
+     */
+    public void reload() {
+        seenVersion.accumulateAndGet(dataManager.getVersion(), Math::max);
+        List<T> loaded = new ArrayList<>();
+        for (T record : source.get()) {
+            if (filter.test(record)) {
+                loaded.add(record);
+            }
+        }
+        rows = loaded;
+        positionsValid = false;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Reload all rows only if a change happened that this model has not
+     * received; received changes are applied as they arrive
+     */
+    public void reloadIfChanged() {
+        if (seenVersion.get() != dataManager.getVersion()) {
+            reload();
+        }
+    }
+
+    /**
+     * Show only records accepted by the filter
+     * @param filter Row filter, or null to show all records
+     */
+    public void setFilter(Predicate<T> filter) {
+        this.filter = filter == null ? record -> true : filter;
+        reload();
+    }
+
+    /**
+     * Show records selected elsewhere, e.g. search results, without
+     * scanning the data layer
+     * @param records Records to show, in display order
+     * @param filter Filter accepting the same records, applied to later changes
+     */
+    public void showRecords(List<T> records, Predicate<T> filter) {
+        this.filter = filter;
+        rows = new ArrayList<>(records);
+        positionsValid = false;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Record shown in a row
+     * @param row Row index
+     * @return Record of the row
+     */
+    public T getRecord(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return getColumnValue(rows.get(row), column);
+    }
+
+    /**
+     * Queue a data change; may be called from any thread
+     * @param event Change event
+     */
+    @Override
+    public void dataChanged(DataChangeEvent event) {
+        boolean schedule;
+        synchronized (pending) {
+            schedule = pending.isEmpty();
+            pending.add(event);
+        }
+        seenVersion.accumulateAndGet(event.getVersion(), Math::max);
+        if (schedule) {
+            SwingUtilities.invokeLater(this::applyPending);
+        }
+    }
+
+    /**
+     * Apply all queued changes, firing the matching table events
+     */
+    private void applyPending() {
+        List<DataChangeEvent> events;
+        synchronized (pending) {
+            events = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        Set<Object> deleted = new HashSet<>();
+        boolean repaintAll = false;
+        for (DataChangeEvent event : events) {
+            if (event.getType() == DataChangeEvent.Type.DATA_RELOADED) {
+                deleted.clear();
+                repaintAll = false;
+                reload();
+            } else if (event.getType() == savedType) {
+                T record = recordType.cast(event.getEntity());
+                Object key = keyOf(record);
+                Integer row = positionOf(key);
+                deleted.remove(key);
+                if (row != null) {
+                    rows.set(row, record);
+                    if (filter.test(record)) {
+                        fireTableRowsUpdated(row, row);
+                    } else {
+                        deleted.add(key);
+                    }
+                } else if (filter.test(record)) {
+                    rows.add(record);
+                    positions.put(key, rows.size() - 1);
+                    fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+                }
+            } else if (event.getType() == deletedType) {
+                Object key = keyOf(recordType.cast(event.getEntity()));
+                if (positionOf(key) != null) {
+                    deleted.add(key);
+                }
+            } else if (affectsDisplayedValues(event)) {
+                repaintAll = true;
+            }
+        }
+
+        if (repaintAll && !rows.isEmpty()) {
+            fireTableRowsUpdated(0, rows.size() - 1);
+        }
+        removeRows(deleted);
+    }
+
+    private void removeRows(Set<Object> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (keys.size() == 1) {
+            Integer row = positionOf(keys.iterator().next());
+            rows.remove((int) row);
+            positionsValid = false;
+            fireTableRowsDeleted(row, row);
+            return;
+        }
+        // One pass for a batch, e.g. the grades of a deleted course
+        rows.removeIf(record -> keys.contains(keyOf(record)));
+        positionsValid = false;
+        fireTableDataChanged();
+    }
+
+    private Integer positionOf(Object key) {
+        if (!positionsValid) {
+            positions.clear();
+            for (int i = 0; i < rows.size(); i++) {
+                positions.put(keyOf(rows.get(i)), i);
+            }
+            positionsValid = true;
+        }
+        return positions.get(key);
+    }
+}
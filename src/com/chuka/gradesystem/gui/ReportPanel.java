@@ -6,22 +6,40 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class ReportPanel extends JPanel implements ActionListener {
+/**
+ * ReportPanel - Transcript generation and export
+ * 
+ * The student list follows the DataManager's change events, adding,
+ * replacing or removing single entries, so it is only rebuilt when the
+ * data is reloaded or a change was missed. A transcript shown here ends
+ * with the student's class rank, read from a GpaRanking. Cohort Statistics
+ * summarises every grade overall and per department, semester and course.
+ */
+public class ReportPanel extends JPanel implements ActionListener, DataChangeListener {
     
     private DataManager dataManager;
     private GradeService gradeService;
+    private TranscriptService transcriptService;
+    private GpaRanking ranking;
     private JComboBox<Student> studentCombo;
     private JTextArea reportArea;
-    private JButton generateBtn, exportBtn;
+    private JButton generateBtn, exportBtn, exportAllBtn, cohortBtn;
+    // Latest data version received, applied or queued
+    private final AtomicLong seenVersion = new AtomicLong(-1);
     
     public ReportPanel(DataManager dataManager, GradeService gradeService) {
         this.dataManager = dataManager;
         this.gradeService = gradeService;
+        this.transcriptService = new TranscriptService(dataManager, gradeService);
+        this.ranking = new GpaRanking(dataManager, gradeService);
         setLayout(new BorderLayout(10, 10));
         initializeComponents();
         refreshData();
+        dataManager.addChangeListener(this);
     }
     
     private void initializeComponents() {
@@ -31,6 +49,19 @@ public class ReportPanel extends JPanel implements ActionListener {
         topPanel.add(new JLabel("Select Student:"));
         studentCombo = new JComboBox<>();
         studentCombo.setPreferredSize(new Dimension(250, 25));
+        // Render from the cached CGPA instead of Student.toString(), which recomputes GPA
+        studentCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                if (value instanceof Student) {
+                    Student student = (Student) value;
+                    value = String.format("%s - %s (GPA: %.2f)", student.getStudentId(),
+                            student.getName(), gradeService.calculateCGPA(student));
+                }
+                return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            }
+        });
         topPanel.add(studentCombo);
         
         generateBtn = new JButton("Generate Transcript");
@@ -41,6 +72,14 @@ public class ReportPanel extends JPanel implements ActionListener {
         exportBtn.addActionListener(this);
         topPanel.add(exportBtn);
         
+        exportAllBtn = new JButton("Export All Transcripts");
+        exportAllBtn.addActionListener(this);
+        topPanel.add(exportAllBtn);
+        
+        cohortBtn = new JButton("Cohort Statistics");
+        cohortBtn.addActionListener(this);
+        topPanel.add(cohortBtn);
+        
         // Report TextArea
         reportArea = new JTextArea(20, 70);
         reportArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
@@ -53,17 +92,88 @@ public class ReportPanel extends JPanel implements ActionListener {
     }
     
     public void refreshData() {
+        seenVersion.accumulateAndGet(dataManager.getVersion(), Math::max);
         studentCombo.removeAllItems();
         for (Student student : dataManager.loadAllStudents()) {
             studentCombo.addItem(student);
         }
     }
     
+    /**
+     * Rebuild the student list only if a change happened that this panel
+     * has not received
+     */
+    public void refreshIfChanged() {
+        if (seenVersion.get() != dataManager.getVersion()) {
+            refreshData();
+        }
+    }
+    
+    /**
+     * Follow student changes on the event dispatch thread; may be called
+     * from any thread
+     * @param event Change event
+     */
+    @Override
+    public void dataChanged(DataChangeEvent event) {
+        switch (event.getType()) {
+            case STUDENT_SAVED:
+            case STUDENT_DELETED:
+            case DATA_RELOADED:
+                SwingUtilities.invokeLater(() -> applyChange(event));
+                break;
+            case GRADE_SAVED:
+            case GRADE_DELETED:
+                // The list shows each student's GPA
+                studentCombo.repaint();
+                break;
+            default:
+                break;
+        }
+        seenVersion.accumulateAndGet(event.getVersion(), Math::max);
+    }
+    
+    private void applyChange(DataChangeEvent event) {
+        if (event.getType() == DataChangeEvent.Type.DATA_RELOADED) {
+            refreshData();
+            return;
+        }
+        Student student = (Student) event.getEntity();
+        int index = indexOf(student.getStudentId());
+        if (event.getType() == DataChangeEvent.Type.STUDENT_DELETED) {
+            if (index >= 0) {
+                studentCombo.removeItemAt(index);
+            }
+        } else if (index < 0) {
+            studentCombo.addItem(student);
+        } else {
+            boolean selected = studentCombo.getSelectedIndex() == index;
+            studentCombo.removeItemAt(index);
+            studentCombo.insertItemAt(student, index);
+            if (selected) {
+                studentCombo.setSelectedIndex(index);
+            }
+        }
+    }
+    
+    private int indexOf(String studentId) {
+        for (int i = 0; i < studentCombo.getItemCount(); i++) {
+            if (studentCombo.getItemAt(i).getStudentId().equals(studentId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == generateBtn) {
             generateTranscript();
         } else if (e.getSource() == exportBtn) {
             exportToFile();
+        } else if (e.getSource() == exportAllBtn) {
+            exportAllTranscripts();
+        } else if (e.getSource() == cohortBtn) {
+            showCohortStatistics();
         }
     }
     
@@ -74,46 +184,147 @@ public class ReportPanel extends JPanel implements ActionListener {
             return;
         }
         
-        StringBuilder report = new StringBuilder();
-        
-        // Student details using getDetails()
-        report.append(student.getDetails()).append("\n\n");
+        reportArea.setText(transcriptService.generateTranscript(student) + classRank(student));
+    }
+    
+    /**
+     * Rank of the student overall, in their department and in their
+     * department and year
+     * @param student Student to rank
+     * @return Class rank section of the transcript
+     */
+    private String classRank(Student student) {
+        StringBuilder section = new StringBuilder("\n=== CLASS RANK ===\n");
+        appendRank(section, "Overall", student, null, null);
+        appendRank(section, student.getDepartment(), student, student.getDepartment(), null);
+        appendRank(section, student.getDepartment() + ", Year " + student.getYearOfStudy(),
+            student, student.getDepartment(), student.getYearOfStudy());
+        return section.toString();
+    }
+    
+    private void appendRank(StringBuilder section, String cohort, Student student,
+                            String department, Integer yearOfStudy) {
+        int rank = ranking.rankOf(student.getStudentId(), department, yearOfStudy);
+        if (rank == 0) {
+            return;
+        }
+        section.append(String.format("%s: %d of %d, percentile %.1f\n", cohort, rank,
+            ranking.cohortSize(department, yearOfStudy),
+            ranking.percentileOf(student.getStudentId(), department, yearOfStudy)));
+    }
+    
+    /**
+     * Summarise every grade in the background and show the result
+     */
+    private void showCohortStatistics() {
+        // Copied here on the EDT, where the data is changed
+        java.util.List<Grade> grades = dataManager.loadAllGrades();
+        cohortBtn.setEnabled(false);
         
-        // List of all courses and grades
-        List<Grade> grades = dataManager.getGradesByStudent(student.getStudentId());
-        if (grades.isEmpty()) {
-            report.append("No grades recorded.\n");
-        } else {
-            report.append("=== COURSES AND GRADES ===\n");
-            report.append("Course Code\tCourse Name\t\tScore\tGrade\tPoints\tSemester\n");
-            report.append("------------------------------------------------------------------------\n");
+        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                return formatCohortStatistics(gradeService.getCohortStatistics(grades));
+            }
             
-            for (Grade grade : grades) {
-                Course course = grade.getCourse();
-                report.append(String.format("%-12s\t%-20s\t%.1f\t%s\t%.1f\t%s\n",
-                    course.getCourseCode(),
-                    course.getCourseName(),
-                    grade.getScore(),
-                    grade.getLetterGrade(),
-                    grade.getGradePoint(),
-                    grade.getSemester()));
+            @Override
+            protected void done() {
+                cohortBtn.setEnabled(true);
+                try {
+                    reportArea.setText(get());
+                    reportArea.setCaretPosition(0);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(ReportPanel.this,
+                        "Error computing statistics: " + ex.getMessage(),
+                        "Statistics Error", JOptionPane.ERROR_MESSAGE);
+                }
             }
-            report.append("\n");
+        };
+        worker.execute();
+    }
+    
+    /**
+     * @param report Cohort statistics
+     * @return The report as text, one line per group
+     */
+    private static String formatCohortStatistics(GradeStatistics.Report report) {
+        GradeStatistics.Summary overall = report.getOverall();
+        StringBuilder text = new StringBuilder("=== COHORT STATISTICS ===\n");
+        text.append(String.format("Grades: %d\n", overall.getCount()));
+        text.append(String.format("Mean: %.2f  SD: %.2f  Median: %.2f\n",
+            overall.getMean(), overall.getStandardDeviation(), overall.getMedian()));
+        text.append(String.format("25th/75th percentile: %.2f / %.2f\n",
+            overall.getPercentile(25), overall.getPercentile(75)));
+        text.append(String.format("Pass rate: %.1f%%\n", overall.getPassRate() * 100));
+        text.append("\nGrade Distribution:\n");
+        for (GradingScheme.Band band : GradingScheme.current().getBands()) {
+            text.append(String.format("%s: %d\n", band.getLetter(), overall.getLetterCount(band.getLetter())));
         }
+        appendGroups(text, "BY DEPARTMENT", report.getByDepartment());
+        appendGroups(text, "BY SEMESTER", report.getBySemester());
+        appendGroups(text, "BY COURSE", report.getByCourse());
+        return text.toString();
+    }
+    
+    private static void appendGroups(StringBuilder text, String title, Map<String, GradeStatistics.Summary> groups) {
+        text.append("\n=== ").append(title).append(" ===\n");
+        for (Map.Entry<String, GradeStatistics.Summary> group : groups.entrySet()) {
+            String name = group.getKey().isEmpty() ? "(none)" : group.getKey();
+            text.append(String.format("%-20s %s\n", name, group.getValue()));
+        }
+    }
+    
+    /**
+     * Export every student's transcript to a directory in the background,
+     * with a cancellable progress monitor
+     */
+    private void exportAllTranscripts() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Select Transcript Directory");
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File directory = fileChooser.getSelectedFile();
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting transcripts...", "", 0, 100);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        exportAllBtn.setEnabled(false);
+        // Copied here on the EDT, where the data is changed
+        TranscriptService.Batch batch = transcriptService.snapshot();
         
-        // Student's CGPA using gradeService.calculateCGPA()
-        double cgpa = gradeService.calculateCGPA(student);
-        report.append(String.format("Cumulative GPA (CGPA): %.2f\n", cgpa));
-        
-        // Class standing using gradeService.getClassStanding()
-        String classStanding = gradeService.getClassStanding(cgpa);
-        report.append(String.format("Class Standing: %s\n", classStanding));
-        
-        // Grade statistics using gradeService.getGradeStatistics()
-        String gradeStats = gradeService.getGradeStatistics(grades);
-        report.append("\n").append(gradeStats);
-        
-        reportArea.setText(report.toString());
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return transcriptService.exportAll(batch, directory, (completed, total) -> {
+                    setProgress(total == 0 ? 100 : completed * 100 / total);
+                }, cancelled);
+            }
+            
+            @Override
+            protected void done() {
+                monitor.close();
+                exportAllBtn.setEnabled(true);
+                try {
+                    int written = get();
+                    JOptionPane.showMessageDialog(ReportPanel.this,
+                        (cancelled.get() ? "Export cancelled. " : "") +
+                        written + " transcripts written to:\n" + directory.getAbsolutePath());
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(ReportPanel.this,
+                        "Error exporting transcripts: " + ex.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                monitor.setProgress((Integer) evt.getNewValue());
+            }
+            if (monitor.isCanceled()) {
+                cancelled.set(true);
+            }
+        });
+        worker.execute();
     }
     
     private void exportToFile() {
@@ -0,0 +1,36 @@
+package com.chuka.gradesystem.gui;
+
+import com.chuka.gradesystem.service.DataManager;
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Reports background save failures to the user.
+ *
+ * With a write-behind DataManager the panels show their success message as
+ * soon as a change is made in memory, while the file write happens later on
+ * the writer thread. Panels call watch() after each change; an error dialog
+ * is shown on the event dispatch thread only if that write fails.
+ */
+final class SaveFeedback {
+
+    private SaveFeedback() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Watch the pending writes of the data manager
+     * @param parent component the error dialog is shown over
+     * @param dataManager data manager the change was made through
+     */
+    static void watch(Component parent, DataManager dataManager) {
+        dataManager.pendingWrites().thenAccept(saved -> {
+            if (!saved) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                    "Your changes could not be written to disk.\n" +
+                    "They are kept in memory and will be saved again on exit.",
+                    "Save Error", JOptionPane.ERROR_MESSAGE));
+            }
+        });
+    }
+}
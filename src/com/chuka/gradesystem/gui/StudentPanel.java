@@ -2,12 +2,12 @@ package com.chuka.gradesystem.gui;
 
 import com.chuka.gradesystem.model.Student;
 import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.service.GradeService;
+import com.chuka.gradesystem.service.SearchService;
 import com.chuka.gradesystem.util.*;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.List;
 
 /**
  * StudentPanel - Student Management Interface
@@ -26,10 +26,13 @@ import java.util.List;
 public class StudentPanel extends JPanel implements ActionListener, KeyListener {
     
     private DataManager dataManager;
+    private GradeService gradeService;
+    private SearchService searchService;
     
     // Table components
     private JTable studentTable;
-    private DefaultTableModel tableModel;
+    private StudentTableModel tableModel;
+    private DebouncedSearch<Student> search;
     private JScrollPane tableScrollPane;
     
     // Form components
@@ -43,15 +46,18 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
     /**
      * Constructor
      * @param dataManager Data manager instance
+     * @param gradeService Grade service used for the GPA column
+     * @param searchService Search index used by the search field
      */
-    public StudentPanel(DataManager dataManager) {
+    public StudentPanel(DataManager dataManager, GradeService gradeService, SearchService searchService) {
         this.dataManager = dataManager;
+        this.gradeService = gradeService;
+        this.searchService = searchService;
         
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
         initializeComponents();
-        refreshData();
     }
     
     /**
@@ -87,12 +93,9 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
      * Create the student table
      */
     private void createTable() {
-        tableModel = new DefaultTableModel(Constants.STUDENT_COLUMNS, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        // Read-only model that follows changes in the data manager
+        tableModel = new StudentTableModel(dataManager, gradeService);
+        search = new DebouncedSearch<>(tableModel, searchService::searchStudents, searchService::matches);
         
         studentTable = new JTable(tableModel);
         studentTable.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -209,24 +212,18 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
     }
     
     /**
-     * Refresh table data
+     * Refresh table data, showing all students
      */
     public void refreshData() {
-        tableModel.setRowCount(0); // Clear table
-        
-        List<Student> students = dataManager.loadAllStudents();
-        for (Student student : students) {
-            Object[] row = {
-                student.getStudentId(),
-                student.getName(),
-                student.getEmail(),
-                student.getPhone(),
-                student.getDepartment(),
-                student.getYearOfStudy(),
-                String.format("%.2f", student.calculateGPA())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setFilter(null);
+    }
+    
+    /**
+     * Bring the table up to date when the tab is shown, keeping the
+     * current search; the rows are only reloaded if changes were missed
+     */
+    public void refreshIfChanged() {
+        tableModel.reloadIfChanged();
     }
     
     /**
@@ -267,8 +264,8 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
         );
         
         if (dataManager.saveStudent(student)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Student added successfully!");
-            refreshData();
             clearForm();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to add student!", 
@@ -299,8 +296,8 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
         student.setYearOfStudy((Integer) yearSpinner.getValue());
         
         if (dataManager.updateStudent(student)) {
+            SaveFeedback.watch(this, dataManager);
             JOptionPane.showMessageDialog(this, "Student updated successfully!");
-            refreshData();
             clearForm();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to update student!", 
@@ -328,8 +325,8 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
         
         if (confirm == JOptionPane.YES_OPTION) {
             if (dataManager.deleteStudent(studentId)) {
+                SaveFeedback.watch(this, dataManager);
                 JOptionPane.showMessageDialog(this, "Student deleted successfully!");
-                refreshData();
                 clearForm();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete student!", 
@@ -353,7 +350,8 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
         Student student = dataManager.findStudentById(studentId);
         
         if (student != null) {
-            JOptionPane.showMessageDialog(this, student.getDetails(), 
+            // CGPA from the grade service; not every DataManager fills Student.getGrades()
+            JOptionPane.showMessageDialog(this, student.getDetails(gradeService.calculateCGPA(student)), 
                 "Student Details", JOptionPane.INFORMATION_MESSAGE);
         }
     }
@@ -432,32 +430,6 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
         return true;
     }
     
-    /**
-     * Search students - KeyListener implementation
-     */
-    private void searchStudents(String query) {
-        tableModel.setRowCount(0);
-        
-        List<Student> students = dataManager.loadAllStudents();
-        for (Student student : students) {
-            if (student.getName().toLowerCase().contains(query.toLowerCase()) ||
-                student.getStudentId().toLowerCase().contains(query.toLowerCase()) ||
-                student.getEmail().toLowerCase().contains(query.toLowerCase())) {
-                
-                Object[] row = {
-                    student.getStudentId(),
-                    student.getName(),
-                    student.getEmail(),
-                    student.getPhone(),
-                    student.getDepartment(),
-                    student.getYearOfStudy(),
-                    String.format("%.2f", student.calculateGPA())
-                };
-                tableModel.addRow(row);
-            }
-        }
-    }
-    
     // KeyListener implementation for search
     @Override
     public void keyTyped(KeyEvent e) {}
@@ -467,11 +439,7 @@ public class StudentPanel extends JPanel implements ActionListener, KeyListener
     
     @Override
     public void keyReleased(KeyEvent e) {
-        String query = searchField.getText().trim();
-        if (query.isEmpty()) {
-            refreshData();
-        } else {
-            searchStudents(query);
-        }
+        // Searches name, student ID and email once typing pauses
+        search.queryChanged(searchField.getText());
     }
 }
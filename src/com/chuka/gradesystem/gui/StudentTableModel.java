@@ -0,0 +1,54 @@
+package com.chuka.gradesystem.gui;
+
+import com.chuka.gradesystem.model.Student;
+import com.chuka.gradesystem.service.DataChangeEvent;
+import com.chuka.gradesystem.service.DataManager;
+import com.chuka.gradesystem.service.GradeService;
+import com.chuka.gradesystem.util.Constants;
+
+/**
+ * StudentTableModel - Rows of the Students table
+ *
+ * The GPA column is read from the GradeService CGPA cache when a row is
+ * painted, and is repainted whenever a grade changes.
+ */
+public class StudentTableModel extends RecordTableModel<Student> {
+
+    private final GradeService gradeService;
+
+    /**
+     * Constructor
+     * @param dataManager Data manager instance
+     * @param gradeService Grade service used for the GPA column
+     */
+    public StudentTableModel(DataManager dataManager, GradeService gradeService) {
+        super(dataManager, Constants.STUDENT_COLUMNS, Student.class, dataManager::loadAllStudents,
+              DataChangeEvent.Type.STUDENT_SAVED, DataChangeEvent.Type.STUDENT_DELETED);
+        this.gradeService = gradeService;
+    }
+
+    @Override
+    protected Object keyOf(Student student) {
+        return student.getStudentId();
+    }
+
+    @Override
+    protected Object getColumnValue(Student student, int column) {
+        switch (column) {
+            case 0: return student.getStudentId();
+            case 1: return student.getName();
+            case 2: return student.getEmail();
+            case 3: return student.getPhone();
+            case 4: return student.getDepartment();
+            case 5: return student.getYearOfStudy();
+            case 6: return String.format("%.2f", gradeService.calculateCGPA(student));
+            default: return null;
+        }
+    }
+
+    @Override
+    protected boolean affectsDisplayedValues(DataChangeEvent event) {
+        return event.getType() == DataChangeEvent.Type.GRADE_SAVED
+            || event.getType() == DataChangeEvent.Type.GRADE_DELETED;
+    }
+}
@@ -0,0 +1,46 @@
+package com.chuka.gradesystem.model;
+
+import com.chuka.gradesystem.util.Constants;
+
+/**
+ * Degree classification of a GPA, best first.
+ */
+public enum ClassStanding {
+    FIRST_CLASS("First Class", Constants.FIRST_CLASS_MIN),
+    SECOND_CLASS_UPPER("Second Class Upper", Constants.SECOND_CLASS_UPPER_MIN),
+    SECOND_CLASS_LOWER("Second Class Lower", Constants.SECOND_CLASS_LOWER_MIN),
+    PASS("Pass", Constants.PASS_MIN),
+    FAIL("Fail", 0.0);
+
+    private static final ClassStanding[] VALUES = values();
+
+    private final String label;
+    private final double minGpa;
+
+    ClassStanding(String label, double minGpa) {
+        this.label = label;
+        this.minGpa = minGpa;
+    }
+
+    public static ClassStanding of(double gpa) {
+        for (ClassStanding standing : VALUES) {
+            if (gpa >= standing.minGpa) {
+                return standing;
+            }
+        }
+        return FAIL;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public double getMinGpa() {
+        return minGpa;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
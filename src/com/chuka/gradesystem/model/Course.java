@@ -4,6 +4,9 @@ import java.io.Serializable;
 import java.util.Objects;
 
 public class Course implements Serializable {
+    // Fixed so data files written by earlier versions still load
+    private static final long serialVersionUID = 6251509704247163033L;
+
     private String courseCode;
     private String courseName;
     private int credits;
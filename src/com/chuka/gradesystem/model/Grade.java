@@ -1,13 +1,30 @@
 package com.chuka.gradesystem.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public class Grade implements Serializable {
+    // Fixed so data files written before the grading scheme existed still load
+    private static final long serialVersionUID = -6687771529431291272L;
+
+    // Serialized form of older versions, which held the letter as a String
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("student", Student.class),
+        new ObjectStreamField("course", Course.class),
+        new ObjectStreamField("score", double.class),
+        new ObjectStreamField("letterGrade", String.class),
+        new ObjectStreamField("gradePoint", double.class),
+        new ObjectStreamField("semester", String.class)
+    };
+
     private Student student;
     private Course course;
     private double score;
-    private String letterGrade;
-    private double gradePoint;
+    // Letter, grade point and status, shared with every grade in the same band
+    private transient GradingScheme.Band band;
     private String semester;
 
     public Grade() {
@@ -18,8 +35,7 @@ public class Grade implements Serializable {
         this.course = course;
         this.score = score;
         this.semester = semester;
-        calculateLetterGrade();
-        calculateGradePoint();
+        classify(GradingScheme.current());
     }
 
     public Student getStudent() {
@@ -34,12 +50,12 @@ public class Grade implements Serializable {
         return score;
     }
 
-    public String getLetterGrade() {
-        return letterGrade;
+    public LetterGrade getLetterGrade() {
+        return band == null ? null : band.getLetter();
     }
 
     public double getGradePoint() {
-        return gradePoint;
+        return band == null ? 0.0 : band.getGradePoint();
     }
 
     public String getSemester() {
@@ -59,76 +75,60 @@ public class Grade implements Serializable {
             throw new IllegalArgumentException("Score must be between 0 and 100");
         }
         this.score = score;
-        calculateLetterGrade();
-        calculateGradePoint();
+        classify(GradingScheme.current());
     }
 
     public void setSemester(String semester) {
         this.semester = semester;
     }
 
-    private void calculateLetterGrade() {
-        if (score >= 70) {
-            letterGrade = "A";
-        } else if (score >= 60) {
-            letterGrade = "B";
-        } else if (score >= 50) {
-            letterGrade = "C";
-        } else if (score >= 40) {
-            letterGrade = "D";
-        } else {
-            letterGrade = "F";
-        }
-    }
-
-    private void calculateGradePoint() {
-        switch (letterGrade) {
-            case "A":
-                gradePoint = 4.0;
-                break;
-            case "B":
-                gradePoint = 3.0;
-                break;
-            case "C":
-                gradePoint = 2.0;
-                break;
-            case "D":
-                gradePoint = 1.0;
-                break;
-            case "F":
-                gradePoint = 0.0;
-                break;
-            default:
-                gradePoint = 0.0;
-        }
+    /**
+     * Recompute the letter grade and grade point under a grading scheme
+     */
+    public void classify(GradingScheme scheme) {
+        band = scheme.classify(score);
     }
 
     public boolean isPassing() {
-        return score >= 40;
+        return getGradePoint() > 0;
     }
 
     public String getGradeStatus() {
-        if (score >= 70) {
-            return "Excellent";
-        } else if (score >= 60) {
-            return "Good";
-        } else if (score >= 50) {
-            return "Average";
-        } else if (score >= 40) {
-            return "Poor";
-        } else {
-            return "Fail";
-        }
+        return band == null ? null : band.getStatus();
     }
 
     public String getDetails() {
         return String.format("Course: %s\nScore: %.2f\nLetter Grade: %s\nGrade Point: %.1f\nStatus: %s",
-                course.getCourseName(), score, letterGrade, gradePoint, getGradeStatus());
+                course.getCourseName(), score, getLetterGrade(), getGradePoint(), getGradeStatus());
     }
 
     @Override
     public String toString() {
         return String.format("%s: %.2f (%s)",
-                course.getCourseCode(), score, letterGrade);
+                course.getCourseCode(), score, getLetterGrade());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("student", student);
+        fields.put("course", course);
+        fields.put("score", score);
+        fields.put("letterGrade", band == null ? null : band.getLetter().name());
+        fields.put("gradePoint", getGradePoint());
+        fields.put("semester", semester);
+        out.writeFields();
+    }
+
+    /**
+     * The stored letter and grade point are not trusted; the grade is
+     * classified again from its score, as for the binary data files
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        student = (Student) fields.get("student", null);
+        course = (Course) fields.get("course", null);
+        score = fields.get("score", 0.0);
+        semester = (String) fields.get("semester", null);
+        classify(GradingScheme.current());
     }
 }
\ No newline at end of file
@@ -5,9 +5,9 @@ import java.util.List;
 public interface GradeCalculator {
     double calculateGPA(List<Grade> grades);
     double calculateCGPA(Student student);
-    String getLetterGrade(double score);
-    double getGradePoint(String letterGrade);
+    LetterGrade getLetterGrade(double score);
+    double getGradePoint(LetterGrade letterGrade);
     int calculateTotalCredits(List<Grade> grades);
     boolean isHonorRoll(Student student);
-    String getClassStanding(double gpa);
+    ClassStanding getClassStanding(double gpa);
 }
\ No newline at end of file
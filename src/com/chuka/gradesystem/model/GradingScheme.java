@@ -0,0 +1,243 @@
+package com.chuka.gradesystem.model;
+
+import com.chuka.gradesystem.util.Constants;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Maps a score to its letter grade, grade point and status.
+ *
+ * A scheme is a list of bands, each with the lowest score it covers. Band
+ * limits must fall on whole or half marks, so a score is classified with one
+ * lookup in a table of half-mark buckets instead of a chain of comparisons.
+ * Each letter may appear in at most one band.
+ *
+ * Schemes are loaded from a properties file:
+ * <pre>
+ *   name=Faculty of Science
+ *   bands=A:70:4.0:Excellent, B:60:3.0:Good, C:50:2.0:Average, D:40:1.0:Poor, F:0:0.0:Fail
+ * </pre>
+ * Grades are classified with the current scheme, which is the default one
+ * unless a file is named with -Dgradesystem.gradingScheme.
+ */
+public final class GradingScheme {
+    public static final String CONFIG_PROPERTY = "gradesystem.gradingScheme";
+
+    private static final int BUCKETS_PER_MARK = 2;
+    private static final int BUCKETS = (int) Constants.MAX_SCORE * BUCKETS_PER_MARK + 1;
+
+    private static final GradingScheme DEFAULT = new GradingScheme("Default", Arrays.asList(
+            new Band(LetterGrade.A, Constants.GRADE_A_MIN, Constants.GRADE_POINT_A, "Excellent"),
+            new Band(LetterGrade.B, Constants.GRADE_B_MIN, Constants.GRADE_POINT_B, "Good"),
+            new Band(LetterGrade.C, Constants.GRADE_C_MIN, Constants.GRADE_POINT_C, "Average"),
+            new Band(LetterGrade.D, Constants.GRADE_D_MIN, Constants.GRADE_POINT_D, "Poor"),
+            new Band(LetterGrade.F, Constants.GRADE_F_MIN, Constants.GRADE_POINT_F, "Fail")));
+
+    private static volatile GradingScheme current = DEFAULT;
+
+    private final String name;
+    private final List<Band> bands;
+    // Band index of every half-mark bucket from 0 to 100
+    private final byte[] bandByBucket = new byte[BUCKETS];
+    // Band index of every letter, -1 if the scheme does not use it
+    private final byte[] bandByLetter = new byte[LetterGrade.COUNT];
+    private final Band[] bandArray;
+
+    /**
+     * One score band of a scheme. Grades classified by the scheme share its
+     * Band objects.
+     */
+    public static final class Band {
+        private final LetterGrade letter;
+        private final double minScore;
+        private final double gradePoint;
+        private final String status;
+
+        public Band(LetterGrade letter, double minScore, double gradePoint, String status) {
+            this.letter = letter;
+            this.minScore = minScore;
+            this.gradePoint = gradePoint;
+            this.status = status;
+        }
+
+        public LetterGrade getLetter() {
+            return letter;
+        }
+
+        public double getMinScore() {
+            return minScore;
+        }
+
+        public double getGradePoint() {
+            return gradePoint;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * @param name Scheme name, for display
+     * @param bands Score bands, in any order; one must start at 0
+     * @throws IllegalArgumentException if the bands do not form a valid scheme
+     */
+    public GradingScheme(String name, List<Band> bands) {
+        List<Band> sorted = new ArrayList<>(bands);
+        sorted.sort((a, b) -> Double.compare(b.getMinScore(), a.getMinScore()));
+        if (sorted.isEmpty() || sorted.get(sorted.size() - 1).getMinScore() != Constants.MIN_SCORE) {
+            throw new IllegalArgumentException("The lowest band must start at " + Constants.MIN_SCORE);
+        }
+        this.name = name;
+        this.bands = Collections.unmodifiableList(sorted);
+        bandArray = sorted.toArray(new Band[0]);
+        Arrays.fill(bandByLetter, (byte) -1);
+
+        int bucket = BUCKETS;
+        for (int i = 0; i < sorted.size(); i++) {
+            Band band = sorted.get(i);
+            double start = band.getMinScore() * BUCKETS_PER_MARK;
+            if (start != Math.rint(start) || band.getMinScore() > Constants.MAX_SCORE) {
+                throw new IllegalArgumentException("Band limit must be a whole or half mark up to "
+                        + Constants.MAX_SCORE + ": " + band.getMinScore());
+            }
+            if (band.getLetter() == null || bandByLetter[band.getLetter().ordinal()] >= 0) {
+                throw new IllegalArgumentException("Missing or repeated letter: " + band.getLetter());
+            }
+            if ((int) start == bucket) {
+                throw new IllegalArgumentException("Two bands start at " + band.getMinScore());
+            }
+            bandByLetter[band.getLetter().ordinal()] = (byte) i;
+            Arrays.fill(bandByBucket, (int) start, bucket, (byte) i);
+            bucket = (int) start;
+        }
+    }
+
+    public static GradingScheme getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the scheme new grades are classified with
+     */
+    public static GradingScheme current() {
+        return current;
+    }
+
+    public static void setCurrent(GradingScheme scheme) {
+        current = scheme == null ? DEFAULT : scheme;
+    }
+
+    /**
+     * Scheme named by the gradesystem.gradingScheme property, or the default
+     * scheme if none is named or the file cannot be read
+     */
+    public static GradingScheme loadConfigured() {
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path == null) {
+            return DEFAULT;
+        }
+        try {
+            return load(new File(path));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading grading scheme: " + e.getMessage());
+            return DEFAULT;
+        }
+    }
+
+    public static GradingScheme load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * @param properties name and bands, as in the class description
+     * @throws IllegalArgumentException if a band cannot be parsed
+     */
+    public static GradingScheme fromProperties(Properties properties) {
+        String spec = properties.getProperty("bands");
+        if (spec == null) {
+            throw new IllegalArgumentException("Grading scheme has no bands");
+        }
+        List<Band> bands = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Band must be letter:minScore:gradePoint:status: " + entry);
+            }
+            LetterGrade letter = LetterGrade.parse(parts[0].trim());
+            if (letter == null) {
+                throw new IllegalArgumentException("Unknown letter grade in band: " + entry);
+            }
+            try {
+                bands.add(new Band(letter, Double.parseDouble(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()), parts[3].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in band: " + entry);
+            }
+        }
+        return new GradingScheme(properties.getProperty("name", "Custom"), bands);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the bands, highest first
+     */
+    public List<Band> getBands() {
+        return bands;
+    }
+
+    /**
+     * @return index in getBands() of the band covering the score; scores
+     *         outside 0 to 100 fall in the nearest band
+     */
+    public int bandOf(double score) {
+        int bucket = (int) (Math.min(Math.max(score, Constants.MIN_SCORE), Constants.MAX_SCORE) * BUCKETS_PER_MARK);
+        return bandByBucket[bucket];
+    }
+
+    /**
+     * @return index in getBands() of the band with the letter, or -1
+     */
+    public int bandOf(LetterGrade letter) {
+        return letter == null ? -1 : bandByLetter[letter.ordinal()];
+    }
+
+    public Band getBand(int band) {
+        return bandArray[band];
+    }
+
+    public Band classify(double score) {
+        return bandArray[bandOf(score)];
+    }
+
+    public LetterGrade getLetterGrade(double score) {
+        return classify(score).getLetter();
+    }
+
+    /**
+     * @return grade point of the letter, 0.0 if the scheme does not use it
+     */
+    public double getGradePoint(LetterGrade letter) {
+        int band = bandOf(letter);
+        return band < 0 ? 0.0 : bandArray[band].getGradePoint();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,33 @@
+package com.chuka.gradesystem.model;
+
+/**
+ * Letter grades a grading scheme can award, best first. Which letters are
+ * used, and their score limits and grade points, depend on the scheme.
+ */
+public enum LetterGrade {
+    A, B, C, D, E, F;
+
+    private static final LetterGrade[] VALUES = values();
+
+    public static final int COUNT = VALUES.length;
+
+    /**
+     * @param ordinal 0 to COUNT - 1
+     */
+    public static LetterGrade of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Case-insensitive parse of a single-letter grade, as found in older
+     * data files and configuration
+     * @return the letter grade, or null if the text is not one
+     */
+    public static LetterGrade parse(String text) {
+        if (text == null || text.length() != 1) {
+            return null;
+        }
+        int ordinal = Character.toUpperCase(text.charAt(0)) - 'A';
+        return ordinal >= 0 && ordinal < COUNT ? VALUES[ordinal] : null;
+    }
+}
@@ -5,6 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Student extends Person implements Serializable {
+    // Fixed so data files written by earlier versions still load
+    private static final long serialVersionUID = -7482358354662197719L;
+
     private String studentId;
     private String department;
     private int yearOfStudy;
@@ -101,6 +104,14 @@ public class Student extends Person implements Serializable {
 
     @Override
     public String getDetails() {
+        return getDetails(calculateGPA());
+    }
+
+    /**
+     * Details showing a GPA worked out by the caller, e.g. from a grade
+     * list it already holds rather than this student's live list
+     */
+    public String getDetails(double gpa) {
         StringBuilder details = new StringBuilder();
         details.append("=== STUDENT DETAILS ===\n");
         details.append("Student ID: ").append(studentId).append("\n");
@@ -110,7 +121,7 @@ public class Student extends Person implements Serializable {
         details.append("Department: ").append(department).append("\n");
         details.append("Year of Study: ").append(yearOfStudy).append("\n");
         details.append("Enrolled Courses: ").append(enrolledCourses.size()).append("\n");
-        details.append("Current GPA: ").append(String.format("%.2f", calculateGPA())).append("\n");
+        details.append("Current GPA: ").append(String.format("%.2f", gpa)).append("\n");
         return details.toString();
     }
 
@@ -0,0 +1,35 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.Student;
+import java.util.Comparator;
+
+/**
+ * A student with the CGPA they are ranked by, as it was when the ranking
+ * last took in a change to them.
+ */
+public final class CgpaStanding {
+    /** Highest CGPA first, ties by student ID */
+    static final Comparator<CgpaStanding> HIGHEST_FIRST = Comparator.comparingDouble(CgpaStanding::getCgpa)
+            .reversed().thenComparing(standing -> standing.getStudent().getStudentId());
+
+    private final Student student;
+    private final double cgpa;
+
+    CgpaStanding(Student student, double cgpa) {
+        this.student = student;
+        this.cgpa = cgpa;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public double getCgpa() {
+        return cgpa;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.2f)", student.getStudentId(), cgpa);
+    }
+}
@@ -0,0 +1,495 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe DataManager for running import jobs and reporting threads
+ * alongside the UI.
+ *
+ * Records live in ConcurrentHashMaps. Compound updates (upserting a grade
+ * and adding it to the student's grade list, cascading a student delete)
+ * hold the lock stripe of the student id, so writers working on different
+ * students proceed in parallel. Writers share the snapshot lock while
+ * loadAll* and saveAllData take it exclusively, which gives them a
+ * consistent point-in-time view. Course deletes are rare and also run
+ * exclusively.
+ *
+ * The lists returned by loadAll* are unmodifiable snapshots, copied once
+ * after a change and then shared: until the next write they are returned
+ * without taking any lock, and they stay valid however long a reader
+ * iterates them.
+ *
+ * Unlike FileDataManager, mutations are kept in memory; when file backed,
+ * saveAllData writes a consistent snapshot of all three files. The load*
+ * methods do not guarantee insertion order. Change listeners are called
+ * on the writing thread, possibly from several threads at once, so events
+ * may arrive out of version order.
+ *
+ * Grades are also indexed by student, course and semester, so the
+ * getGradesBy* queries and cascading deletes are proportional to the
+ * number of grades involved. Each stored student's grade list is replaced
+ * by a CopyOnWriteArrayList, so Student.getGrades() may be read without a
+ * lock while writers change it; each grade is replaced or removed in one
+ * step.
+ */
+public class ConcurrentDataManager implements DataManager {
+    private static final int STRIPES = 64;
+
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    private final Map<String, Course> courses = new ConcurrentHashMap<>();
+    private final Map<GradeKey, Grade> grades = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<GradeKey, Grade>> gradesByStudent = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<GradeKey, Grade>> gradesByCourse = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<GradeKey, Grade>> gradesBySemester = new ConcurrentHashMap<>();
+
+    private final SnapshotCache<Student> studentSnapshot = new SnapshotCache<>(students::values);
+    private final SnapshotCache<Course> courseSnapshot = new SnapshotCache<>(courses::values);
+    private final SnapshotCache<Grade> gradeSnapshot = new SnapshotCache<>(grades::values);
+
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final Lock[] stripes = new Lock[STRIPES];
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final boolean fileBacked;
+
+    public ConcurrentDataManager() {
+        this(false);
+    }
+
+    /**
+     * @param fileBacked if true, loadAllData/saveAllData read and write the
+     *                   data/*.dat files; otherwise the store is memory only
+     */
+    public ConcurrentDataManager(boolean fileBacked) {
+        this.fileBacked = fileBacked;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        if (fileBacked) {
+            DataFiles.ensureDataDir();
+            loadAllData();
+        }
+    }
+
+    @Override
+    public boolean saveStudent(Student student) {
+        if (student == null) {
+            return false;
+        }
+        return write(student.getStudentId(), () -> {
+            Student previous = students.put(student.getStudentId(), shareGrades(student));
+            studentSnapshot.invalidate();
+            fireDataChanged(DataChangeEvent.Type.STUDENT_SAVED, student, previous);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Student> loadAllStudents() {
+        return snapshot(studentSnapshot);
+    }
+
+    @Override
+    public Student findStudentById(String studentId) {
+        return studentId == null ? null : students.get(studentId);
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        if (student == null) {
+            return false;
+        }
+        return write(student.getStudentId(), () -> {
+            Student previous = students.replace(student.getStudentId(), shareGrades(student));
+            if (previous == null) {
+                return false;
+            }
+            studentSnapshot.invalidate();
+            fireDataChanged(DataChangeEvent.Type.STUDENT_SAVED, student, previous);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean deleteStudent(String studentId) {
+        return write(studentId, () -> {
+            Student removed = students.remove(studentId);
+            if (removed == null) {
+                return false;
+            }
+            studentSnapshot.invalidate();
+            removeGrades(getGradesByStudent(studentId));
+            fireDataChanged(DataChangeEvent.Type.STUDENT_DELETED, removed, null);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveCourse(Course course) {
+        if (course == null) {
+            return false;
+        }
+        return write(course.getCourseCode(), () -> {
+            Course previous = courses.put(course.getCourseCode(), course);
+            courseSnapshot.invalidate();
+            fireDataChanged(DataChangeEvent.Type.COURSE_SAVED, course, previous);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Course> loadAllCourses() {
+        return snapshot(courseSnapshot);
+    }
+
+    @Override
+    public Course findCourseByCode(String courseCode) {
+        return courseCode == null ? null : courses.get(courseCode);
+    }
+
+    @Override
+    public boolean updateCourse(Course course) {
+        if (course == null) {
+            return false;
+        }
+        return write(course.getCourseCode(), () -> {
+            Course previous = courses.replace(course.getCourseCode(), course);
+            if (previous == null) {
+                return false;
+            }
+            courseSnapshot.invalidate();
+            fireDataChanged(DataChangeEvent.Type.COURSE_SAVED, course, previous);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean deleteCourse(String courseCode) {
+        return exclusive(() -> {
+            Course removed = courses.remove(courseCode);
+            if (removed == null) {
+                return false;
+            }
+            courseSnapshot.invalidate();
+            removeGrades(getGradesByCourse(courseCode));
+            fireDataChanged(DataChangeEvent.Type.COURSE_DELETED, removed, null);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveGrade(Grade grade) {
+        if (grade == null || grade.getStudent() == null || grade.getCourse() == null) {
+            return false;
+        }
+        GradeKey key = GradeKey.of(grade);
+        return write(key.getStudentId(), () -> {
+            Grade previous = grades.put(key, grade);
+            gradeSnapshot.invalidate();
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            index(key, grade);
+            Student student = students.get(key.getStudentId());
+            if (student != null) {
+                linkToStudent(student, previous, grade);
+            }
+            fireDataChanged(DataChangeEvent.Type.GRADE_SAVED, grade, previous);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveGrades(Collection<Grade> batch) {
+        boolean success = true;
+        for (Grade grade : batch) {
+            success &= saveGrade(grade);
+        }
+        return success;
+    }
+
+    @Override
+    public List<Grade> loadAllGrades() {
+        return snapshot(gradeSnapshot);
+    }
+
+    @Override
+    public List<Grade> getGradesByStudent(String studentId) {
+        return lookup(gradesByStudent, studentId);
+    }
+
+    @Override
+    public List<Grade> getGradesByCourse(String courseCode) {
+        return lookup(gradesByCourse, courseCode);
+    }
+
+    @Override
+    public List<Grade> getGradesBySemester(String semester) {
+        return lookup(gradesBySemester, Objects.toString(semester, ""));
+    }
+
+    @Override
+    public boolean deleteGrade(Student student, Course course) {
+        GradeKey key = new GradeKey(student.getStudentId(), course.getCourseCode());
+        return write(key.getStudentId(), () -> {
+            Grade removed = grades.remove(key);
+            if (removed == null) {
+                return false;
+            }
+            gradeSnapshot.invalidate();
+            unindex(key, removed);
+            unlinkFromStudent(removed);
+            fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, removed, null);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveAllData() {
+        if (!fileBacked) {
+            return true;
+        }
+        return exclusive(() -> {
+            try {
+                DataFiles.writeStudents(DataFiles.STUDENTS_FILE, students.values());
+                DataFiles.writeCourses(DataFiles.COURSES_FILE, courses.values());
+                DataFiles.writeGrades(DataFiles.GRADES_FILE, grades.values());
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error saving data: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public boolean loadAllData() {
+        if (!fileBacked) {
+            return true;
+        }
+        return exclusive(() -> {
+            // Readers wait on the lock from here on, even if the load fails half way
+            invalidateSnapshots();
+            try {
+                File file = new File(DataFiles.COURSES_FILE);
+                if (file.exists()) {
+                    courses.clear();
+                    for (Course course : DataFiles.readCourses(file)) {
+                        courses.put(course.getCourseCode(), course);
+                    }
+                }
+                file = new File(DataFiles.STUDENTS_FILE);
+                if (file.exists()) {
+                    students.clear();
+                    for (Student student : DataFiles.readStudents(file, this)) {
+                        students.put(student.getStudentId(), shareGrades(student));
+                    }
+                }
+                file = new File(DataFiles.GRADES_FILE);
+                if (file.exists()) {
+                    clearGrades();
+                    List<Grade> loaded = DataFiles.readGrades(file, this);
+                    DataFiles.linkGrades(loaded, this);
+                    for (Grade grade : loaded) {
+                        if (grade.getStudent() != null && grade.getCourse() != null) {
+                            GradeKey key = GradeKey.of(grade);
+                            Grade previous = grades.put(key, grade);
+                            if (previous != null) {
+                                unindex(key, previous);
+                            }
+                            index(key, grade);
+                        }
+                    }
+                }
+                fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+                return true;
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Error loading data: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public boolean clearAllData() {
+        exclusive(() -> {
+            students.clear();
+            courses.clear();
+            clearGrades();
+            invalidateSnapshots();
+            fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+            return true;
+        });
+        return saveAllData();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> pendingWrites() {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void fireDataChanged(DataChangeEvent.Type type, Object entity, Object previous) {
+        long current = version.incrementAndGet();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        DataChangeEvent event = new DataChangeEvent(type, entity, previous, current);
+        for (DataChangeListener listener : listeners) {
+            listener.dataChanged(event);
+        }
+    }
+
+    private void removeGrades(List<Grade> owned) {
+        for (Grade grade : owned) {
+            GradeKey key = GradeKey.of(grade);
+            if (grades.remove(key, grade)) {
+                gradeSnapshot.invalidate();
+                unindex(key, grade);
+                unlinkFromStudent(grade);
+                fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, grade, null);
+            }
+        }
+    }
+
+    private void clearGrades() {
+        grades.clear();
+        gradesByStudent.clear();
+        gradesByCourse.clear();
+        gradesBySemester.clear();
+    }
+
+    private <T> List<T> snapshot(SnapshotCache<T> cache) {
+        List<T> current = cache.peek();
+        return current != null ? current : exclusive(cache::get);
+    }
+
+    private void invalidateSnapshots() {
+        studentSnapshot.invalidate();
+        courseSnapshot.invalidate();
+        gradeSnapshot.invalidate();
+    }
+
+    private static List<Grade> lookup(Map<String, Map<GradeKey, Grade>> index, String value) {
+        Map<GradeKey, Grade> bucket = index.get(value);
+        return bucket == null ? Collections.emptyList() : new ArrayList<>(bucket.values());
+    }
+
+    // Buckets are created and dropped inside compute so that writers on other
+    // stripes sharing a course or semester bucket never lose an entry
+
+    private void index(GradeKey key, Grade grade) {
+        index(gradesByStudent, key.getStudentId(), key, grade);
+        index(gradesByCourse, key.getCourseCode(), key, grade);
+        index(gradesBySemester, Objects.toString(grade.getSemester(), ""), key, grade);
+    }
+
+    private void unindex(GradeKey key, Grade grade) {
+        unindex(gradesByStudent, key.getStudentId(), key);
+        unindex(gradesByCourse, key.getCourseCode(), key);
+        unindex(gradesBySemester, Objects.toString(grade.getSemester(), ""), key);
+    }
+
+    private static void index(ConcurrentHashMap<String, Map<GradeKey, Grade>> index, String value,
+                              GradeKey key, Grade grade) {
+        index.compute(value, (k, bucket) -> {
+            Map<GradeKey, Grade> target = bucket == null ? new ConcurrentHashMap<>() : bucket;
+            target.put(key, grade);
+            return target;
+        });
+    }
+
+    private static void unindex(ConcurrentHashMap<String, Map<GradeKey, Grade>> index, String value,
+                                GradeKey key) {
+        index.computeIfPresent(value, (k, bucket) -> {
+            bucket.remove(key);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private static Student shareGrades(Student student) {
+        if (!(student.getGrades() instanceof CopyOnWriteArrayList)) {
+            student.setGrades(new CopyOnWriteArrayList<>(student.getGrades()));
+        }
+        return student;
+    }
+
+    // Replaces the previous grade in place, so readers never miss both
+    private static void linkToStudent(Student student, Grade previous, Grade grade) {
+        List<Grade> owned = student.getGrades();
+        int index = previous == null ? -1 : owned.indexOf(previous);
+        if (index >= 0) {
+            owned.set(index, grade);
+        } else {
+            owned.add(grade);
+        }
+    }
+
+    private void unlinkFromStudent(Grade grade) {
+        Student student = students.get(grade.getStudent().getStudentId());
+        if (student != null) {
+            student.getGrades().remove(grade);
+        }
+    }
+
+    private Lock stripeFor(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private boolean write(String key, Supplier<Boolean> action) {
+        snapshotLock.readLock().lock();
+        try {
+            Lock stripe = stripeFor(key);
+            stripe.lock();
+            try {
+                return action.get();
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private <T> T exclusive(Supplier<T> action) {
+        snapshotLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+}
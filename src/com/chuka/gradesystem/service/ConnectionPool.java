@@ -0,0 +1,140 @@
+package com.chuka.gradesystem.service;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Small bounded pool of JDBC connections.
+ *
+ * Connections are opened on first demand, up to maxSize, and kept open
+ * between units of work; when all of them are busy a caller waits for one
+ * to be returned. An idle connection that fails validation is replaced.
+ * Work runs either in auto-commit mode or as one transaction that is
+ * rolled back if it throws.
+ *
+ * The JDBC driver only has to be on the classpath at run time; it is
+ * found through DriverManager.
+ */
+public class ConnectionPool implements Closeable {
+    private static final int VALIDATION_TIMEOUT_S = 2;
+
+    /**
+     * Unit of work run on a pooled connection
+     */
+    public interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * @param user database user, or null if the URL needs none
+     * @param maxSize most connections open at once, at least 1
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public <T> T withConnection(Work<T> work) throws SQLException {
+        Connection connection = acquire();
+        try {
+            return work.run(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Runs the work as one transaction: committed if it returns, rolled
+     * back if it throws
+     */
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        return withConnection(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * Closes the idle connections; busy ones are closed when returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            Connection connection;
+            while ((connection = idle.poll()) != null) {
+                if (connection.isValid(VALIDATION_TIMEOUT_S)) {
+                    return connection;
+                }
+                closeQuietly(connection);
+            }
+            return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(Connection connection) {
+        if (closed) {
+            closeQuietly(connection);
+        } else {
+            idle.offer(connection);
+        }
+        permits.release();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+}
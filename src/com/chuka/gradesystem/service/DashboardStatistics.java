@@ -0,0 +1,183 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.Student;
+import com.chuka.gradesystem.util.Constants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Figures shown on the dashboard: record counts, average GPA and the
+ * honor roll, kept current as the data changes.
+ *
+ * Each student's CGPA is remembered, the average is a running sum over
+ * them and the honor roll is a set sorted by CGPA, so a change costs
+ * O(log n) and reading the counts or the average costs O(1). Everything is
+ * computed in full once, on first use and again after the data is
+ * reloaded.
+ *
+ * Changes arrive through the GradeService, after its CGPA cache has taken
+ * them in, so the CGPA read for a changed student is already current.
+ */
+public class DashboardStatistics implements DataChangeListener {
+
+    private final DataManager dataManager;
+    private final GradeService gradeService;
+
+    // Guarded by this
+    private boolean built;
+    private int courseCount;
+    private int gradeCount;
+    private final Map<String, CgpaStanding> standings = new HashMap<>();
+    private final NavigableSet<CgpaStanding> honorRoll = new TreeSet<>(CgpaStanding.HIGHEST_FIRST);
+    private double gpaSum;
+    private int gpaCount;
+    private List<CgpaStanding> honorRollView;
+
+    public DashboardStatistics(DataManager dataManager, GradeService gradeService) {
+        this.dataManager = dataManager;
+        this.gradeService = gradeService;
+        gradeService.addChangeListener(this);
+    }
+
+    public synchronized int getStudentCount() {
+        build();
+        return standings.size();
+    }
+
+    public synchronized int getCourseCount() {
+        build();
+        return courseCount;
+    }
+
+    public synchronized int getGradeCount() {
+        build();
+        return gradeCount;
+    }
+
+    /**
+     * @return mean CGPA of the students who have one, or 0 if none do
+     */
+    public synchronized double getAverageGpa() {
+        build();
+        return gpaCount > 0 ? gpaSum / gpaCount : 0.0;
+    }
+
+    /**
+     * Students with a CGPA of at least Constants.HONOR_ROLL_MIN, highest
+     * first. The list is unmodifiable and is the same instance until the
+     * honor roll changes.
+     */
+    public synchronized List<CgpaStanding> getHonorRoll() {
+        build();
+        if (honorRollView == null) {
+            honorRollView = Collections.unmodifiableList(new ArrayList<>(honorRoll));
+        }
+        return honorRollView;
+    }
+
+    @Override
+    public synchronized void dataChanged(DataChangeEvent event) {
+        if (!built) {
+            return;
+        }
+        switch (event.getType()) {
+            case STUDENT_SAVED:
+                update((Student) event.getEntity());
+                break;
+            case STUDENT_DELETED:
+                remove(((Student) event.getEntity()).getStudentId());
+                break;
+            case COURSE_SAVED: {
+                Course previous = (Course) event.getPrevious();
+                if (previous == null) {
+                    courseCount++;
+                } else if (previous.getCredits() != ((Course) event.getEntity()).getCredits()) {
+                    // Credits weigh into the CGPA of everyone graded in the course
+                    for (Grade grade : dataManager.getGradesByCourse(previous.getCourseCode())) {
+                        refresh(grade.getStudent().getStudentId());
+                    }
+                }
+                break;
+            }
+            case COURSE_DELETED:
+                courseCount--;
+                break;
+            case GRADE_SAVED:
+                if (event.getPrevious() == null) {
+                    gradeCount++;
+                }
+                refresh(((Grade) event.getEntity()).getStudent().getStudentId());
+                break;
+            case GRADE_DELETED:
+                gradeCount--;
+                refresh(((Grade) event.getEntity()).getStudent().getStudentId());
+                break;
+            case DATA_RELOADED:
+                built = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        standings.clear();
+        honorRoll.clear();
+        honorRollView = null;
+        gpaSum = 0;
+        gpaCount = 0;
+        courseCount = dataManager.loadAllCourses().size();
+        gradeCount = dataManager.loadAllGrades().size();
+        for (Student student : dataManager.loadAllStudents()) {
+            update(student);
+        }
+        built = true;
+    }
+
+    private void refresh(String studentId) {
+        CgpaStanding standing = standings.get(studentId);
+        if (standing != null) {
+            update(standing.getStudent());
+        }
+    }
+
+    private void update(Student student) {
+        remove(student.getStudentId());
+        CgpaStanding standing = new CgpaStanding(student, gradeService.calculateCGPA(student));
+        standings.put(student.getStudentId(), standing);
+        if (standing.getCgpa() > 0) {
+            gpaSum += standing.getCgpa();
+            gpaCount++;
+        }
+        if (standing.getCgpa() >= Constants.HONOR_ROLL_MIN) {
+            honorRoll.add(standing);
+            honorRollView = null;
+        }
+    }
+
+    private void remove(String studentId) {
+        CgpaStanding standing = standings.remove(studentId);
+        if (standing == null) {
+            return;
+        }
+        if (standing.getCgpa() > 0) {
+            gpaSum -= standing.getCgpa();
+            if (--gpaCount == 0) {
+                gpaSum = 0; // drop rounding error
+            }
+        }
+        if (honorRoll.remove(standing)) {
+            honorRollView = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.chuka.gradesystem.service;
+
+/**
+ * Describes a single change made through a DataManager.
+ *
+ * For *_SAVED events the entity is the stored record and previous is the
+ * record it replaced (null for an insert). For *_DELETED events the entity
+ * is the removed record. DATA_RELOADED carries no entity and means any
+ * cached view of the data must be rebuilt.
+ *
+ * Each event carries the DataManager's version after the change. Versions
+ * increase by one per change, so a view that remembers the last version it
+ * has seen can tell from DataManager.getVersion() whether it is current.
+ */
+public class DataChangeEvent {
+    public enum Type {
+        STUDENT_SAVED, STUDENT_DELETED,
+        COURSE_SAVED, COURSE_DELETED,
+        GRADE_SAVED, GRADE_DELETED,
+        DATA_RELOADED
+    }
+
+    private final Type type;
+    private final Object entity;
+    private final Object previous;
+    private final long version;
+
+    public DataChangeEvent(Type type, Object entity, Object previous, long version) {
+        this.type = type;
+        this.entity = entity;
+        this.previous = previous;
+        this.version = version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public Object getPrevious() {
+        return previous;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return type + (entity != null ? " " + entity : "") + " @" + version;
+    }
+}
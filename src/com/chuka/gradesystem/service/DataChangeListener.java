@@ -0,0 +1,9 @@
+package com.chuka.gradesystem.service;
+
+/**
+ * Receives change notifications from a DataManager.
+ * Called on the thread that performed the change.
+ */
+public interface DataChangeListener {
+    void dataChanged(DataChangeEvent event);
+}
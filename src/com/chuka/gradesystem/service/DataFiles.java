@@ -0,0 +1,248 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Locations of the data files and whole-file read/write in the record
+ * format, shared by the file-backed DataManager implementations.
+ * Reads also accept legacy ObjectOutputStream files.
+ *
+ * A file is never overwritten in place: it is written to a .tmp file,
+ * forced to disk and renamed over the old one, so a crash or a full disk
+ * leaves either the old or the new file. Each file ends with a CRC-32
+ * that is checked before the file is parsed.
+ */
+final class DataFiles {
+    // Overridable with -Dgradesystem.dataDir=..., e.g. to keep benchmark data apart
+    static final String DATA_DIR = withSlash(System.getProperty("gradesystem.dataDir", "data/"));
+    static final String STUDENTS_FILE = DATA_DIR + "students.dat";
+    static final String COURSES_FILE = DATA_DIR + "courses.dat";
+    static final String GRADES_FILE = DATA_DIR + "grades.dat";
+
+    // Windows cannot replace a file while a mapping of it is still open, and
+    // mappings are only released by the garbage collector
+    private static final boolean MAP_FOR_READ = !System.getProperty("os.name", "").startsWith("Windows");
+
+    private DataFiles() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    private static String withSlash(String dir) {
+        return dir.endsWith("/") ? dir : dir + "/";
+    }
+
+    static void ensureDataDir() {
+        File dataDir = new File(DATA_DIR);
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+    }
+
+    static void writeStudents(String path, Collection<Student> students) throws IOException {
+        writeAtomically(path, writer -> writer.writeStudents(students));
+    }
+
+    static void writeCourses(String path, Collection<Course> courses) throws IOException {
+        writeAtomically(path, writer -> writer.writeCourses(courses));
+    }
+
+    static void writeGrades(String path, Collection<Grade> grades) throws IOException {
+        writeAtomically(path, writer -> writer.writeGrades(grades));
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Student> readStudents(File file, DataManager lookup)
+            throws IOException, ClassNotFoundException {
+        if (RecordReader.isRecordFile(file)) {
+            try (RecordReader reader = new RecordReader(openForRead(file))) {
+                return reader.readStudents(lookup);
+            }
+        }
+        return (List<Student>) readLegacy(file);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Course> readCourses(File file) throws IOException, ClassNotFoundException {
+        if (RecordReader.isRecordFile(file)) {
+            try (RecordReader reader = new RecordReader(openForRead(file))) {
+                return reader.readCourses();
+            }
+        }
+        return (List<Course>) readLegacy(file);
+    }
+
+    /**
+     * Grades read from the record format are linked to the students and
+     * courses held by lookup; legacy grades carry their own copies.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Grade> readGrades(File file, DataManager lookup)
+            throws IOException, ClassNotFoundException {
+        if (RecordReader.isRecordFile(file)) {
+            try (RecordReader reader = new RecordReader(openForRead(file))) {
+                return reader.readGrades(lookup);
+            }
+        }
+        return (List<Grade>) readLegacy(file);
+    }
+
+    /**
+     * Points every loaded grade at the student and course objects held by lookup
+     * and rebuilds each student's grade list from grades.dat, which is the
+     * source of truth (legacy files hold separate copies of both).
+     */
+    static void linkGrades(List<Grade> loaded, DataManager lookup) {
+        for (Student student : lookup.loadAllStudents()) {
+            student.getGrades().clear();
+        }
+        for (Grade grade : loaded) {
+            if (grade.getStudent() == null || grade.getCourse() == null) {
+                continue;
+            }
+            Student student = lookup.findStudentById(grade.getStudent().getStudentId());
+            Course course = lookup.findCourseByCode(grade.getCourse().getCourseCode());
+            if (course != null) {
+                grade.setCourse(course);
+            }
+            if (student != null) {
+                grade.setStudent(student);
+                student.addGrade(grade);
+            }
+        }
+    }
+
+    /**
+     * Keeps a copy of a file that could not be read, as name.damaged, so a
+     * later save of the partly loaded data does not destroy what is left
+     * @return the copy, or null if it could not be made
+     */
+    static File preserveDamaged(File file) {
+        File copy = new File(file.getPath() + ".damaged");
+        try {
+            Files.copy(file.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return copy;
+        } catch (IOException e) {
+            System.err.println("Error preserving " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private interface Body {
+        void write(RecordWriter writer) throws IOException;
+    }
+
+    private static void writeAtomically(String path, Body body) throws IOException {
+        File target = new File(path);
+        File temp = new File(path + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            body.write(new RecordWriter(out));
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        Files.move(temp.toPath(), target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * Makes the rename durable. Not every platform can open a directory;
+     * there the rename is left to the file system.
+     */
+    private static void syncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows: directories cannot be opened as channels
+        }
+    }
+
+    /**
+     * Opens a file for one sequential read, memory-mapped where possible so
+     * its pages are read straight from the page cache. Record files are
+     * checked against their CRC first.
+     * @throws IOException if the checksum does not match
+     */
+    static InputStream openForRead(File file) throws IOException {
+        ByteBuffer contents;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return new FileInputStream(file);
+            }
+            if (MAP_FOR_READ) {
+                contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } else {
+                contents = ByteBuffer.allocate((int) channel.size());
+                while (contents.hasRemaining() && channel.read(contents) >= 0) {
+                    // Read the whole file
+                }
+                contents.flip();
+            }
+        }
+        verifyChecksum(file, contents);
+        return new ByteBufferInputStream(contents);
+    }
+
+    private static void verifyChecksum(File file, ByteBuffer contents) throws IOException {
+        // Magic, version and the trailer at least
+        if (contents.limit() < 6 + RecordWriter.TRAILER_SIZE
+                || contents.getInt(0) != RecordWriter.MAGIC || contents.getShort(4) < 2) {
+            return;
+        }
+        int end = contents.limit() - RecordWriter.TRAILER_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer body = contents.duplicate();
+        body.position(0).limit(end);
+        crc.update(body);
+        if ((int) crc.getValue() != contents.getInt(end)) {
+            throw new IOException("Checksum mismatch, " + file + " is damaged");
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static Object readLegacy(File file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            return ois.readObject();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.chuka.gradesystem.service;
 
 import com.chuka.gradesystem.model.*;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface DataManager {
     // STUDENT OPERATIONS
@@ -20,13 +22,23 @@ public interface DataManager {
 
     // GRADE OPERATIONS
     boolean saveGrade(Grade grade);
+    boolean saveGrades(Collection<Grade> grades);
     List<Grade> loadAllGrades();
     List<Grade> getGradesByStudent(String studentId);
     List<Grade> getGradesByCourse(String courseCode);
+    List<Grade> getGradesBySemester(String semester);
     boolean deleteGrade(Student student, Course course);
 
     // UTILITY OPERATIONS
     boolean saveAllData();
     boolean loadAllData();
     boolean clearAllData();
+    /** Completes once the changes made so far are on disk; true if they were all written. */
+    CompletableFuture<Boolean> pendingWrites();
+
+    // CHANGE NOTIFICATION
+    void addChangeListener(DataChangeListener listener);
+    void removeChangeListener(DataChangeListener listener);
+    /** Version of the data, increased by every change event; starts at 0. */
+    long getVersion();
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.chuka.gradesystem.service;
+
+import java.sql.SQLException;
+
+/**
+ * Copies the data/*.dat files, including any journal not yet folded into
+ * them, into a SQL database for {@link JdbcDataManager}. Whatever the
+ * database held before is replaced. The .dat files are only read.
+ *
+ * Usage, with the JDBC driver on the classpath:
+ * <pre>
+ *   java -cp out:h2.jar com.chuka.gradesystem.service.DataMigration jdbc:h2:./data/grades [user password]
+ * </pre>
+ */
+public final class DataMigration {
+
+    private DataMigration() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage: DataMigration <jdbc-url> [user password]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        FileDataManager source = new FileDataManager(true);
+        try (JdbcDataManager target = new JdbcDataManager(args[0],
+                args.length == 3 ? args[1] : null, args.length == 3 ? args[2] : null)) {
+            if (!target.importFrom(source)) {
+                System.exit(1);
+            }
+            System.out.println(String.format("Migrated %d students, %d courses and %d grades to %s in %d ms",
+                    target.loadAllStudents().size(), target.loadAllCourses().size(),
+                    target.loadAllGrades().size(), args[0], (System.nanoTime() - start) / 1_000_000));
+        } catch (SQLException e) {
+            System.err.println("Error opening database: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -3,289 +3,485 @@ package com.chuka.gradesystem.service;
 import com.chuka.gradesystem.model.*;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class FileDataManager implements DataManager {
-    private static final String DATA_DIR = "data/";
-    private static final String STUDENTS_FILE = DATA_DIR + "students.dat";
-    private static final String COURSES_FILE = DATA_DIR + "courses.dat";
-    private static final String GRADES_FILE = DATA_DIR + "grades.dat";
+public class FileDataManager extends IndexedDataManager {
+    private static final String JOURNAL_FILE = DataFiles.DATA_DIR + "journal.log";
 
-    private List<Student> students;
-    private List<Course> courses;
-    private List<Grade> grades;
+    // Journal records accumulated before they are folded into a snapshot
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    // Collection bits for dirty tracking
+    private static final int STUDENTS = 1;
+    private static final int COURSES = 2;
+    private static final int GRADES = 4;
+    private static final int ALL = STUDENTS | COURSES | GRADES;
+
+    private final WriteAheadLog journal;
+    private final WriteBehindQueue writes;
+    private boolean replaying;
+    private volatile boolean journalFailed;
+    private FlushPolicy flushPolicy;
+    // Collections changed since they were last written, and the changes not
+    // yet flushed (journaled or not)
+    private int dirty;
+    private int unflushed;
+    private long oldestUnflushedNanos;
+    // Collections whose queued write failed; the next flush writes them again
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private volatile long mutations;
+    // True while openInBackground() is still reading the files
+    private volatile boolean loading;
+    private volatile long loadMillis = -1;
+    private CompletableFuture<Boolean> loaded;
 
     public FileDataManager() {
-        students = new ArrayList<>();
-        courses = new ArrayList<>();
-        grades = new ArrayList<>();
-        File dataDir = new File(DATA_DIR);
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
-        loadAllData();
+        this(false);
     }
 
-    @Override
-    public boolean saveStudent(Student student) {
-        if (student == null) {
-            return false;
-        }
-        Student existing = findStudentById(student.getStudentId());
-        if (existing != null) {
-            return updateStudent(student);
+    /**
+     * @param journaled if true, mutations are appended to a journal and the
+     *                  .dat files are only rewritten on compaction; otherwise
+     *                  every mutation rewrites the affected .dat files
+     */
+    public FileDataManager(boolean journaled) {
+        this(journaled, false);
+    }
+
+    /**
+     * @param writeBehind if true, file writes run on a background writer thread
+     *                    and mutations return once the change is made in memory;
+     *                    use pendingWrites() to learn when (and whether) it reached disk
+     */
+    public FileDataManager(boolean journaled, boolean writeBehind) {
+        this(journaled, writeBehind, true);
+    }
+
+    private FileDataManager(boolean journaled, boolean writeBehind, boolean loadNow) {
+        DataFiles.ensureDataDir();
+        journal = journaled ? new WriteAheadLog(JOURNAL_FILE) : null;
+        writes = new WriteBehindQueue(writeBehind);
+        flushPolicy = journaled ? FlushPolicy.after(COMPACT_THRESHOLD, 0) : FlushPolicy.IMMEDIATE;
+        if (loadNow) {
+            loaded = CompletableFuture.completedFuture(loadAllData());
         }
-        students.add(student);
-        return saveStudentsToFile();
     }
 
-    @Override
-    public List<Student> loadAllStudents() {
-        return new ArrayList<>(students);
+    /**
+     * Creates a manager that starts out empty and reads its files on a
+     * background thread, so a window can be shown before a large archive is
+     * in memory. The loaded records are installed by a task run on
+     * installOn, e.g. the event dispatch thread, which then fires
+     * DATA_RELOADED. Until then mutations are refused and saveAllData
+     * writes nothing.
+     */
+    public static FileDataManager openInBackground(boolean journaled, boolean writeBehind,
+                                                   Executor installOn) {
+        FileDataManager manager = new FileDataManager(journaled, writeBehind, false);
+        manager.loading = true;
+        long start = System.nanoTime();
+        IndexedDataManager staging = new IndexedDataManager();
+        manager.loaded = CompletableFuture.supplyAsync(() -> manager.readFiles(staging), task -> {
+            Thread loader = new Thread(task, "data-loader");
+            loader.setDaemon(true);
+            loader.start();
+        }).thenApplyAsync(success -> {
+            manager.adopt(staging);
+            manager.loading = false;
+            manager.loadMillis = (System.nanoTime() - start) / 1_000_000;
+            manager.fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+            return success;
+        }, installOn);
+        return manager;
     }
 
-    @Override
-    public Student findStudentById(String studentId) {
-        for (Student student : students) {
-            if (student.getStudentId().equals(studentId)) {
-                return student;
-            }
+    /**
+     * @return completes with the result of the initial load once the data
+     *         is in memory
+     */
+    public CompletableFuture<Boolean> whenLoaded() {
+        return loaded;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * @return milliseconds openInBackground took to read and install the
+     *         data, or -1 until it has
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    public boolean isWriteBehind() {
+        return writes.isBackground();
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    /**
+     * Sets when changed collections are written. Without a journal the
+     * default writes after every change; with one, changes go to the journal
+     * at once and the default folds them into the files every 1000 changes.
+     */
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy == null ? FlushPolicy.IMMEDIATE : flushPolicy;
+        flushIfDue();
+    }
+
+    /**
+     * Flushes if the policy says so or a queued write failed; call
+     * periodically from the thread that makes the changes so a time limit
+     * is honoured while no changes arrive.
+     */
+    public boolean flushIfDue() {
+        if (loading || !(journalFailed || failed.get() != 0
+                || flushPolicy.isDue(unflushed, oldestUnflushedNanos))) {
+            return true;
         }
-        return null;
+        return flush();
     }
 
-    @Override
-    public boolean updateStudent(Student student) {
-        if (student == null) {
-            return false;
+    /**
+     * Writes the collections changed since they were last written. In
+     * journaled mode the journal is truncated afterwards, as the files then
+     * hold its records. The snapshots are taken now; the writes are queued
+     * behind earlier appends.
+     * @return false if a synchronous write failed
+     */
+    public boolean flush() {
+        if (loading) {
+            return true;
+        }
+        int changed = dirty | failed.getAndSet(0);
+        dirty = 0;
+        unflushed = 0;
+        if (changed == 0) {
+            return true;
         }
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getStudentId().equals(student.getStudentId())) {
-                students.set(i, student);
-                return saveStudentsToFile();
+        if (journal == null) {
+            boolean success = true;
+            if ((changed & STUDENTS) != 0) {
+                success &= writes.write(DataFiles.STUDENTS_FILE, loadAllStudents(), students ->
+                        writeFile(STUDENTS, DataFiles.STUDENTS_FILE,
+                                () -> DataFiles.writeStudents(DataFiles.STUDENTS_FILE, students))).getNow(true);
+            }
+            if ((changed & COURSES) != 0) {
+                success &= writes.write(DataFiles.COURSES_FILE, loadAllCourses(), courses ->
+                        writeFile(COURSES, DataFiles.COURSES_FILE,
+                                () -> DataFiles.writeCourses(DataFiles.COURSES_FILE, courses))).getNow(true);
             }
+            if ((changed & GRADES) != 0) {
+                success &= writes.write(DataFiles.GRADES_FILE, loadAllGrades(), grades ->
+                        writeFile(GRADES, DataFiles.GRADES_FILE,
+                                () -> DataFiles.writeGrades(DataFiles.GRADES_FILE, grades))).getNow(true);
+            }
+            return success;
         }
-        return false;
+        List<Student> students = (changed & STUDENTS) != 0 ? loadAllStudents() : null;
+        List<Course> courses = (changed & COURSES) != 0 ? loadAllCourses() : null;
+        List<Grade> grades = (changed & GRADES) != 0 ? loadAllGrades() : null;
+        journalFailed = false;
+        return writes.run(JOURNAL_FILE + " compaction", () -> {
+            if (students != null) {
+                writeFile(changed, DataFiles.STUDENTS_FILE, () -> DataFiles.writeStudents(DataFiles.STUDENTS_FILE, students));
+            }
+            if (courses != null) {
+                writeFile(changed, DataFiles.COURSES_FILE, () -> DataFiles.writeCourses(DataFiles.COURSES_FILE, courses));
+            }
+            if (grades != null) {
+                writeFile(changed, DataFiles.GRADES_FILE, () -> DataFiles.writeGrades(DataFiles.GRADES_FILE, grades));
+            }
+            journal.reset();
+        }).getNow(true);
+    }
+
+    /**
+     * @return bytes written to the data files and the journal so far
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get() + (journal == null ? 0 : journal.getBytesAppended());
+    }
+
+    /**
+     * @return changes made through this manager, not counting the initial load
+     */
+    public long getMutationCount() {
+        return mutations;
+    }
+
+    public double getBytesPerMutation() {
+        long count = mutations;
+        return count > 0 ? (double) getBytesWritten() / count : 0.0;
     }
 
     @Override
-    public boolean deleteStudent(String studentId) {
-        boolean removed = students.removeIf(s -> s.getStudentId().equals(studentId));
-        if (removed) {
-            grades.removeIf(g -> g.getStudent().getStudentId().equals(studentId));
-            saveGradesToFile();
-            return saveStudentsToFile();
-        }
-        return false;
+    public boolean saveStudent(Student student) {
+        return !loading && super.saveStudent(student) && changed(journalStudent(student));
     }
 
     @Override
-    public boolean saveCourse(Course course) {
-        if (course == null) {
-            return false;
-        }
-        Course existing = findCourseByCode(course.getCourseCode());
-        if (existing != null) {
-            return updateCourse(course);
-        }
-        courses.add(course);
-        return saveCoursesToFile();
+    public boolean updateStudent(Student student) {
+        return !loading && super.updateStudent(student) && changed(journalStudent(student));
+    }
+
+    // The enrolment list is copied now, as the append may run on the writer thread
+    private WriteBehindQueue.Task journalStudent(Student student) {
+        List<Course> enrolled = journal == null ? null : new ArrayList<>(student.getEnrolledCourses());
+        return () -> journal.appendSaveStudent(student, enrolled);
     }
 
     @Override
-    public List<Course> loadAllCourses() {
-        return new ArrayList<>(courses);
+    public boolean deleteStudent(String studentId) {
+        return !loading && super.deleteStudent(studentId) && changed(() -> journal.appendDeleteStudent(studentId));
     }
 
     @Override
-    public Course findCourseByCode(String courseCode) {
-        for (Course course : courses) {
-            if (course.getCourseCode().equals(courseCode)) {
-                return course;
-            }
-        }
-        return null;
+    public boolean saveCourse(Course course) {
+        return !loading && super.saveCourse(course) && changed(() -> journal.appendSaveCourse(course));
     }
 
     @Override
     public boolean updateCourse(Course course) {
-        if (course == null) {
-            return false;
-        }
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getCourseCode().equals(course.getCourseCode())) {
-                courses.set(i, course);
-                return saveCoursesToFile();
-            }
-        }
-        return false;
+        return !loading && super.updateCourse(course) && changed(() -> journal.appendSaveCourse(course));
     }
 
     @Override
     public boolean deleteCourse(String courseCode) {
-        boolean removed = courses.removeIf(c -> c.getCourseCode().equals(courseCode));
-        if (removed) {
-            grades.removeIf(g -> g.getCourse().getCourseCode().equals(courseCode));
-            saveGradesToFile();
-            return saveCoursesToFile();
-        }
-        return false;
+        return !loading && super.deleteCourse(courseCode) && changed(() -> journal.appendDeleteCourse(courseCode));
     }
 
     @Override
     public boolean saveGrade(Grade grade) {
-        if (grade == null || grade.getStudent() == null || grade.getCourse() == null) {
+        return !loading && super.saveGrade(grade) && changed(() -> journal.appendSaveGrade(grade));
+    }
+
+    /**
+     * Counts as one change. In journaled mode a batch is written as one
+     * snapshot rather than one journal record per grade.
+     */
+    @Override
+    public boolean saveGrades(Collection<Grade> grades) {
+        if (loading) {
             return false;
         }
-        grades.removeIf(g ->
-            g.getStudent().getStudentId().equals(grade.getStudent().getStudentId()) &&
-            g.getCourse().getCourseCode().equals(grade.getCourse().getCourseCode())
-        );
-        grades.add(grade);
-        Student student = findStudentById(grade.getStudent().getStudentId());
-        if (student != null) {
-            student.addGrade(grade);
-            updateStudent(student);
+        boolean success = super.saveGrades(grades);
+        if (!replaying) {
+            countChange();
+            success &= journal != null ? flush() : flushIfDue();
         }
-        return saveGradesToFile();
+        return success;
     }
 
     @Override
-    public List<Grade> loadAllGrades() {
-        return new ArrayList<>(grades);
+    public boolean deleteGrade(Student student, Course course) {
+        return !loading && super.deleteGrade(student, course)
+                && changed(() -> journal.appendDeleteGrade(student.getStudentId(), course.getCourseCode()));
     }
 
+    /**
+     * Writes the outstanding changes, if any, and blocks until they are on
+     * disk, also in write-behind mode. Unchanged files are not rewritten.
+     */
     @Override
-    public List<Grade> getGradesByStudent(String studentId) {
-        return grades.stream()
-                .filter(g -> g.getStudent().getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+    public boolean saveAllData() {
+        if (loading) {
+            // Nothing can have changed, and memory does not hold the data yet
+            return true;
+        }
+        boolean success = flush();
+        return writes.flush().join() && success;
     }
 
     @Override
-    public List<Grade> getGradesByCourse(String courseCode) {
-        return grades.stream()
-                .filter(g -> g.getCourse().getCourseCode().equals(courseCode))
-                .collect(Collectors.toList());
+    public CompletableFuture<Boolean> pendingWrites() {
+        return writes.whenWritten();
     }
 
     @Override
-    public boolean deleteGrade(Student student, Course course) {
-        boolean removed = grades.removeIf(g ->
-            g.getStudent().getStudentId().equals(student.getStudentId()) &&
-            g.getCourse().getCourseCode().equals(course.getCourseCode())
-        );
-        if (removed) {
-            return saveGradesToFile();
+    public boolean loadAllData() {
+        if (loading) {
+            return false;
         }
-        return false;
+        // Let outstanding writes land so the files match memory before reading them
+        flush();
+        writes.flush().join();
+        boolean success = readFiles(this);
+        fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+        return success;
     }
 
     @Override
-    public boolean saveAllData() {
-        boolean success = true;
-        success &= saveStudentsToFile();
-        success &= saveCoursesToFile();
-        success &= saveGradesToFile();
-        return success;
+    public boolean clearAllData() {
+        if (loading) {
+            return false;
+        }
+        dirty = ALL;
+        countChange();
+        return super.clearAllData();
     }
 
+    // The persist hooks only record which collection changed; flush() writes
+    // it when the policy says so. In write-behind mode the write is queued and
+    // failures surface through pendingWrites()
+
     @Override
-    public boolean loadAllData() {
-        boolean success = true;
-        success &= loadStudentsFromFile();
-        success &= loadCoursesFromFile();
-        success &= loadGradesFromFile();
-        return success;
+    protected boolean persistStudents() {
+        dirty |= STUDENTS;
+        return true;
     }
 
     @Override
-    public boolean clearAllData() {
-        students.clear();
-        courses.clear();
-        grades.clear();
-        return saveAllData();
+    protected boolean persistCourses() {
+        dirty |= COURSES;
+        return true;
     }
 
-    private boolean saveStudentsToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(STUDENTS_FILE))) {
-            oos.writeObject(students);
+    @Override
+    protected boolean persistGrades() {
+        dirty |= GRADES;
+        return true;
+    }
+
+    /**
+     * Counts a change made in memory, journals it and flushes if the policy
+     * says so
+     */
+    private boolean changed(WriteBehindQueue.Task append) {
+        if (replaying) {
             return true;
-        } catch (IOException e) {
-            System.err.println("Error saving students: " + e.getMessage());
-            return false;
         }
+        countChange();
+        if (journal != null && !journalFailed) {
+            boolean appended = writes.run(JOURNAL_FILE, () -> {
+                try {
+                    append.run();
+                } catch (IOException e) {
+                    // The next change flushes instead so this one is not lost
+                    journalFailed = true;
+                    throw e;
+                }
+            }).getNow(true);
+            if (!appended) {
+                // Synchronous mode: fall back to a snapshot right away
+                return flush();
+            }
+        }
+        return flushIfDue();
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean loadStudentsFromFile() {
-        File file = new File(STUDENTS_FILE);
-        if (!file.exists()) {
-            return true;
+    private void countChange() {
+        mutations++;
+        if (unflushed++ == 0) {
+            oldestUnflushedNanos = System.nanoTime();
         }
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(STUDENTS_FILE))) {
-            students = (List<Student>) ois.readObject();
-            return true;
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading students: " + e.getMessage());
-            return false;
+    }
+
+    /**
+     * Runs a file write on the writer thread, counting the bytes written or
+     * marking the collection for the next flush if it fails
+     */
+    private void writeFile(int collection, String path, WriteBehindQueue.Task write) throws IOException {
+        try {
+            write.run();
+        } catch (IOException e) {
+            failed.accumulateAndGet(collection, (a, b) -> a | b);
+            throw e;
         }
+        bytesWritten.addAndGet(new File(path).length());
     }
 
-    private boolean saveCoursesToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(COURSES_FILE))) {
-            oos.writeObject(courses);
+    /**
+     * Reads the data files and replays the journal into target, which is
+     * this manager or one being filled on the loader thread
+     */
+    private boolean readFiles(IndexedDataManager target) {
+        boolean success = true;
+        // Courses first: student and grade records refer to them by code
+        success &= loadCoursesFromFile(target);
+        success &= loadStudentsFromFile(target);
+        success &= loadGradesFromFile(target);
+        if (journal != null) {
+            success &= replayJournal(target);
+        }
+        return success;
+    }
+
+    private boolean replayJournal(IndexedDataManager target) {
+        replaying = target == this;
+        try {
+            journal.replay(target);
+            // The files lack whatever the journal holds
+            unflushed = journal.getRecordCount();
+            oldestUnflushedNanos = System.nanoTime();
+            dirty = unflushed > 0 ? ALL : 0;
             return true;
         } catch (IOException e) {
-            System.err.println("Error saving courses: " + e.getMessage());
+            System.err.println("Error replaying journal: " + e.getMessage());
             return false;
+        } finally {
+            replaying = false;
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean loadCoursesFromFile() {
-        File file = new File(COURSES_FILE);
+    private static boolean loadStudentsFromFile(IndexedDataManager target) {
+        File file = new File(DataFiles.STUDENTS_FILE);
         if (!file.exists()) {
             return true;
         }
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(COURSES_FILE))) {
-            courses = (List<Course>) ois.readObject();
+        try {
+            target.replaceStudents(DataFiles.readStudents(file, target));
             return true;
         } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading courses: " + e.getMessage());
+            System.err.println("Error loading students: " + e.getMessage());
+            DataFiles.preserveDamaged(file);
             return false;
         }
     }
 
-    private boolean saveGradesToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(GRADES_FILE))) {
-            oos.writeObject(grades);
+    private static boolean loadCoursesFromFile(IndexedDataManager target) {
+        File file = new File(DataFiles.COURSES_FILE);
+        if (!file.exists()) {
             return true;
-        } catch (IOException e) {
-            System.err.println("Error saving grades: " + e.getMessage());
+        }
+        try {
+            target.replaceCourses(DataFiles.readCourses(file));
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading courses: " + e.getMessage());
+            DataFiles.preserveDamaged(file);
             return false;
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean loadGradesFromFile() {
-        File file = new File(GRADES_FILE);
+    private static boolean loadGradesFromFile(IndexedDataManager target) {
+        File file = new File(DataFiles.GRADES_FILE);
         if (!file.exists()) {
             return true;
         }
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(GRADES_FILE))) {
-            grades = (List<Grade>) ois.readObject();
+        try {
+            List<Grade> grades = DataFiles.readGrades(file, target);
+            DataFiles.linkGrades(grades, target);
+            target.replaceGrades(grades);
             return true;
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading grades: " + e.getMessage());
+            DataFiles.preserveDamaged(file);
             return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.chuka.gradesystem.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a FileDataManager writes its changed collections back to disk.
+ *
+ * Changes are flushed once maxMutations of them are outstanding, or once
+ * the oldest of them is maxDelayMs old, whichever comes first. Only the
+ * collections that changed are written, so a burst of grade edits rewrites
+ * grades.dat once and leaves the other files alone. The age is checked on
+ * every change and whenever the owner calls FileDataManager.flushIfDue(),
+ * e.g. from a timer on the thread that makes the changes.
+ */
+public final class FlushPolicy {
+    /** Write after every change */
+    public static final FlushPolicy IMMEDIATE = new FlushPolicy(1, 0);
+
+    private final int maxMutations;
+    private final long maxDelayMs;
+
+    private FlushPolicy(int maxMutations, long maxDelayMs) {
+        this.maxMutations = maxMutations;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * @param maxMutations changes collected before a flush, at least 1
+     * @param maxDelayMs longest a change waits to be written, or 0 for no limit
+     */
+    public static FlushPolicy after(int maxMutations, long maxDelayMs) {
+        if (maxMutations < 1 || maxDelayMs < 0) {
+            throw new IllegalArgumentException("Invalid flush policy: " + maxMutations + " changes, " + maxDelayMs + " ms");
+        }
+        return new FlushPolicy(maxMutations, maxDelayMs);
+    }
+
+    public int getMaxMutations() {
+        return maxMutations;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /**
+     * @param pending changes not yet written
+     * @param oldestNanos System.nanoTime() of the oldest of them
+     */
+    boolean isDue(int pending, long oldestNanos) {
+        if (pending == 0) {
+            return false;
+        }
+        return pending >= maxMutations
+                || (maxDelayMs > 0 && System.nanoTime() - oldestNanos >= TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+    }
+
+    @Override
+    public String toString() {
+        return maxDelayMs > 0
+                ? String.format("after %d changes or %d ms", maxMutations, maxDelayMs)
+                : String.format("after %d changes", maxMutations);
+    }
+}
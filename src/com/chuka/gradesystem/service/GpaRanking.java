@@ -0,0 +1,205 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.Student;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class rankings by CGPA: the top students of a cohort, and a student's
+ * rank and percentile within it. A cohort is everyone, a department, a
+ * year of study, or a department and year together; in the queries a null
+ * department or year means any.
+ *
+ * Each student sits in the order-statistic trees of the four cohorts they
+ * belong to, sorted by CGPA, so rank and percentile queries cost O(log n),
+ * a top-K query O(log n + K), and a grade change moves the student within
+ * their four trees in O(log n). Everything is built once, on first use and
+ * again after the data is reloaded. Students without grades rank with a
+ * CGPA of 0.
+ *
+ * Changes arrive through the GradeService, after its CGPA cache has taken
+ * them in, as for DashboardStatistics.
+ */
+public class GpaRanking implements DataChangeListener {
+
+    // Where a student is ranked; department and year are copied because
+    // students are edited in place
+    private static final class Placement {
+        final CgpaStanding standing;
+        final String department;
+        final int yearOfStudy;
+
+        Placement(CgpaStanding standing, String department, int yearOfStudy) {
+            this.standing = standing;
+            this.department = department;
+            this.yearOfStudy = yearOfStudy;
+        }
+    }
+
+    private final DataManager dataManager;
+    private final GradeService gradeService;
+
+    // Guarded by this
+    private boolean built;
+    private final Map<String, Placement> placements = new HashMap<>();
+    private final Map<List<Object>, OrderStatisticTree<CgpaStanding>> cohorts = new HashMap<>();
+
+    public GpaRanking(DataManager dataManager, GradeService gradeService) {
+        this.dataManager = dataManager;
+        this.gradeService = gradeService;
+        gradeService.addChangeListener(this);
+    }
+
+    /**
+     * @return the k students with the highest CGPA in the cohort, highest first
+     */
+    public synchronized List<CgpaStanding> top(int k, String department, Integer yearOfStudy) {
+        build();
+        OrderStatisticTree<CgpaStanding> cohort = cohorts.get(cohortKey(department, yearOfStudy));
+        return cohort == null ? Collections.emptyList() : cohort.first(k);
+    }
+
+    public synchronized int cohortSize(String department, Integer yearOfStudy) {
+        build();
+        OrderStatisticTree<CgpaStanding> cohort = cohorts.get(cohortKey(department, yearOfStudy));
+        return cohort == null ? 0 : cohort.size();
+    }
+
+    /**
+     * Rank in the cohort, from 1; students with equal CGPA share a rank
+     * @return the rank, or 0 if the student is not in the cohort
+     */
+    public synchronized int rankOf(String studentId, String department, Integer yearOfStudy) {
+        build();
+        Placement placement = placements.get(studentId);
+        if (placement == null || !belongsTo(placement, department, yearOfStudy)) {
+            return 0;
+        }
+        double cgpa = placement.standing.getCgpa();
+        return countAbove(cohorts.get(cohortKey(department, yearOfStudy)), cgpa) + 1;
+    }
+
+    /**
+     * Share of the cohort with a lower CGPA, counting half of those with an
+     * equal one (the student included)
+     * @return a percentage from 0 to 100, or NaN if the student is not in
+     *         the cohort
+     */
+    public synchronized double percentileOf(String studentId, String department, Integer yearOfStudy) {
+        build();
+        Placement placement = placements.get(studentId);
+        if (placement == null || !belongsTo(placement, department, yearOfStudy)) {
+            return Double.NaN;
+        }
+        OrderStatisticTree<CgpaStanding> cohort = cohorts.get(cohortKey(department, yearOfStudy));
+        double cgpa = placement.standing.getCgpa();
+        int above = countAbove(cohort, cgpa);
+        int atLeast = cohort.countBefore(standing -> standing.getCgpa() >= cgpa ? -1 : 1);
+        int below = cohort.size() - atLeast;
+        return 100.0 * (below + (atLeast - above) / 2.0) / cohort.size();
+    }
+
+    @Override
+    public synchronized void dataChanged(DataChangeEvent event) {
+        if (!built) {
+            return;
+        }
+        switch (event.getType()) {
+            case STUDENT_SAVED:
+                update((Student) event.getEntity());
+                break;
+            case STUDENT_DELETED:
+                remove(((Student) event.getEntity()).getStudentId());
+                break;
+            case COURSE_SAVED: {
+                Course previous = (Course) event.getPrevious();
+                if (previous != null && previous.getCredits() != ((Course) event.getEntity()).getCredits()) {
+                    for (Grade grade : dataManager.getGradesByCourse(previous.getCourseCode())) {
+                        refresh(grade.getStudent().getStudentId());
+                    }
+                }
+                break;
+            }
+            case GRADE_SAVED:
+            case GRADE_DELETED:
+                refresh(((Grade) event.getEntity()).getStudent().getStudentId());
+                break;
+            case DATA_RELOADED:
+                built = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        placements.clear();
+        cohorts.clear();
+        for (Student student : dataManager.loadAllStudents()) {
+            update(student);
+        }
+        built = true;
+    }
+
+    private void refresh(String studentId) {
+        Placement placement = placements.get(studentId);
+        if (placement != null) {
+            update(placement.standing.getStudent());
+        }
+    }
+
+    private void update(Student student) {
+        remove(student.getStudentId());
+        Placement placement = new Placement(new CgpaStanding(student, gradeService.calculateCGPA(student)),
+                Objects.toString(student.getDepartment(), ""), student.getYearOfStudy());
+        placements.put(student.getStudentId(), placement);
+        for (List<Object> key : cohortKeys(placement)) {
+            cohorts.computeIfAbsent(key, k -> new OrderStatisticTree<>(CgpaStanding.HIGHEST_FIRST))
+                    .add(placement.standing);
+        }
+    }
+
+    private void remove(String studentId) {
+        Placement placement = placements.remove(studentId);
+        if (placement == null) {
+            return;
+        }
+        for (List<Object> key : cohortKeys(placement)) {
+            OrderStatisticTree<CgpaStanding> cohort = cohorts.get(key);
+            cohort.remove(placement.standing);
+            if (cohort.size() == 0) {
+                cohorts.remove(key);
+            }
+        }
+    }
+
+    private static int countAbove(OrderStatisticTree<CgpaStanding> cohort, double cgpa) {
+        return cohort.countBefore(standing -> standing.getCgpa() > cgpa ? -1 : 1);
+    }
+
+    private static boolean belongsTo(Placement placement, String department, Integer yearOfStudy) {
+        return (department == null || department.equals(placement.department))
+                && (yearOfStudy == null || yearOfStudy == placement.yearOfStudy);
+    }
+
+    private static List<List<Object>> cohortKeys(Placement placement) {
+        return Arrays.asList(
+                cohortKey(null, null),
+                cohortKey(placement.department, null),
+                cohortKey(null, placement.yearOfStudy),
+                cohortKey(placement.department, placement.yearOfStudy));
+    }
+
+    private static List<Object> cohortKey(String department, Integer yearOfStudy) {
+        return Arrays.asList(department, yearOfStudy);
+    }
+}
@@ -0,0 +1,366 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Column-oriented copy of the grade table in primitive arrays, for
+ * analytics and GPA passes that should not touch Grade objects.
+ *
+ * Each grade is one row across the columns
+ * <pre>
+ *   int[]   student   ordinal into the student ID dictionary
+ *   int[]   course    ordinal into the course code dictionary
+ *   short[] semester  code into the semester dictionary
+ *   float[] score
+ *   byte[]  letter    LetterGrade ordinal
+ * </pre>
+ * Course credits are kept once per course ordinal, and grade points once
+ * per letter, as last stored; regrading under a new scheme re-saves every
+ * grade whose point changes. Rows are dense: a
+ * deleted row is filled with the last one. The rows of each student are
+ * chained through rowNext/rowPrev, so one student's GPA or the lookup of a
+ * (student, course) row visits only that student's few grades and no
+ * per-row key objects are needed.
+ *
+ * The store follows the DataManager through change events. Accessors are
+ * not synchronized; run a pass through {@link #read(Function)}, which holds
+ * the lock for its duration.
+ */
+public class GradeColumns implements DataChangeListener {
+    private static final int NO_ROW = -1;
+
+    private final DataManager dataManager;
+
+    // Dictionaries; ordinals are never reused
+    private final Dictionary studentIds = new Dictionary();
+    private final Dictionary courseCodes = new Dictionary();
+    private final Dictionary semesters = new Dictionary();
+    private int[] credits = new int[16];
+    private final float[] pointsByLetter = new float[LetterGrade.COUNT];
+
+    // Row columns
+    private int size;
+    private int[] student = new int[16];
+    private int[] course = new int[16];
+    private short[] semester = new short[16];
+    private float[] score = new float[16];
+    private byte[] letter = new byte[16];
+    private int[] rowNext = new int[16];
+    private int[] rowPrev = new int[16];
+
+    // Head of each student's row chain, by student ordinal
+    private int[] firstRow = new int[16];
+
+    /**
+     * Ordinal encoding of a string column. null is stored as "".
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            String key = Objects.toString(value, "");
+            Integer ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                ordinal = values.size();
+                ordinals.put(key, ordinal);
+                values.add(key);
+            }
+            return ordinal;
+        }
+
+        int find(String value) {
+            Integer ordinal = ordinals.get(Objects.toString(value, ""));
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        void clear() {
+            ordinals.clear();
+            values.clear();
+        }
+    }
+
+    public GradeColumns(DataManager dataManager) {
+        this.dataManager = dataManager;
+        reload();
+        dataManager.addChangeListener(this);
+    }
+
+    /**
+     * Runs a pass over the columns under the store's lock
+     */
+    public synchronized <R> R read(Function<GradeColumns, R> query) {
+        return query.apply(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int studentOrdinal(int row) {
+        return student[row];
+    }
+
+    public int courseOrdinal(int row) {
+        return course[row];
+    }
+
+    public int semesterCode(int row) {
+        return semester[row];
+    }
+
+    public float score(int row) {
+        return score[row];
+    }
+
+    /**
+     * @return ordinal of the LetterGrade
+     */
+    public byte letter(int row) {
+        return letter[row];
+    }
+
+    public float gradePoint(int row) {
+        return pointsByLetter[letter[row]];
+    }
+
+    public int credits(int row) {
+        return credits[course[row]];
+    }
+
+    public int studentCount() {
+        return studentIds.values.size();
+    }
+
+    public int courseCount() {
+        return courseCodes.values.size();
+    }
+
+    public int semesterCount() {
+        return semesters.values.size();
+    }
+
+    public String studentId(int ordinal) {
+        return studentIds.values.get(ordinal);
+    }
+
+    public String courseCode(int ordinal) {
+        return courseCodes.values.get(ordinal);
+    }
+
+    public String semester(int code) {
+        return semesters.values.get(code);
+    }
+
+    /**
+     * @return ordinal of the student, or -1 if they have never had a grade
+     */
+    public int findStudent(String studentId) {
+        return studentIds.find(studentId);
+    }
+
+    /**
+     * @return first row of the student's grades, or -1
+     */
+    public int firstRowOf(int studentOrdinal) {
+        return studentOrdinal < studentCount() ? firstRow[studentOrdinal] : NO_ROW;
+    }
+
+    /**
+     * @return next row of the same student, or -1
+     */
+    public int nextRowOf(int row) {
+        return rowNext[row];
+    }
+
+    /**
+     * Credit-weighted GPA of one student, over their rows only
+     */
+    public synchronized double gpa(String studentId) {
+        int ordinal = findStudent(studentId);
+        if (ordinal < 0) {
+            return 0.0;
+        }
+        double points = 0.0;
+        int totalCredits = 0;
+        for (int row = firstRow[ordinal]; row != NO_ROW; row = rowNext[row]) {
+            points += pointsByLetter[letter[row]] * credits[course[row]];
+            totalCredits += credits[course[row]];
+        }
+        return totalCredits > 0 ? points / totalCredits : 0.0;
+    }
+
+    /**
+     * GPA of every student in one pass over the rows
+     * @return GPA by student ordinal
+     */
+    public synchronized double[] allGpas() {
+        int students = studentCount();
+        double[] points = new double[students];
+        int[] totalCredits = new int[students];
+        for (int row = 0; row < size; row++) {
+            int weight = credits[course[row]];
+            points[student[row]] += pointsByLetter[letter[row]] * weight;
+            totalCredits[student[row]] += weight;
+        }
+        for (int i = 0; i < students; i++) {
+            points[i] = totalCredits[i] > 0 ? points[i] / totalCredits[i] : 0.0;
+        }
+        return points;
+    }
+
+    @Override
+    public synchronized void dataChanged(DataChangeEvent event) {
+        switch (event.getType()) {
+            case GRADE_SAVED:
+                put((Grade) event.getEntity());
+                break;
+            case GRADE_DELETED:
+                remove((Grade) event.getEntity());
+                break;
+            case COURSE_SAVED: {
+                Course saved = (Course) event.getEntity();
+                setCredits(courseCodes.encode(saved.getCourseCode()), saved.getCredits());
+                break;
+            }
+            case DATA_RELOADED:
+                reload();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private synchronized void reload() {
+        studentIds.clear();
+        courseCodes.clear();
+        semesters.clear();
+        size = 0;
+        for (Course c : dataManager.loadAllCourses()) {
+            setCredits(courseCodes.encode(c.getCourseCode()), c.getCredits());
+        }
+        for (Grade grade : dataManager.loadAllGrades()) {
+            put(grade);
+        }
+    }
+
+    private void put(Grade grade) {
+        int students = studentCount();
+        int courses = courseCount();
+        int s = studentIds.encode(grade.getStudent().getStudentId());
+        int c = courseCodes.encode(grade.getCourse().getCourseCode());
+        if (c == courses) {
+            // Later credit changes arrive as COURSE_SAVED events
+            setCredits(c, grade.getCourse().getCredits());
+        }
+        if (s == students) {
+            if (s == firstRow.length) {
+                firstRow = Arrays.copyOf(firstRow, s * 2);
+            }
+            firstRow[s] = NO_ROW;
+        }
+
+        int row = rowOf(s, c);
+        if (row == NO_ROW) {
+            row = size;
+            ensureRows(size + 1);
+            size++;
+            student[row] = s;
+            course[row] = c;
+            link(row, s);
+        }
+        semester[row] = (short) semesters.encode(grade.getSemester());
+        score[row] = (float) grade.getScore();
+        letter[row] = (byte) grade.getLetterGrade().ordinal();
+        pointsByLetter[letter[row]] = (float) grade.getGradePoint();
+    }
+
+    private void remove(Grade grade) {
+        int s = studentIds.find(grade.getStudent().getStudentId());
+        int c = courseCodes.find(grade.getCourse().getCourseCode());
+        if (s < 0 || c < 0) {
+            return;
+        }
+        int row = rowOf(s, c);
+        if (row == NO_ROW) {
+            return;
+        }
+        unlink(row);
+        int last = --size;
+        if (row != last) {
+            // Move the last row into the hole and repoint its links
+            student[row] = student[last];
+            course[row] = course[last];
+            semester[row] = semester[last];
+            score[row] = score[last];
+            letter[row] = letter[last];
+            rowNext[row] = rowNext[last];
+            rowPrev[row] = rowPrev[last];
+            if (rowPrev[row] != NO_ROW) {
+                rowNext[rowPrev[row]] = row;
+            } else {
+                firstRow[student[row]] = row;
+            }
+            if (rowNext[row] != NO_ROW) {
+                rowPrev[rowNext[row]] = row;
+            }
+        }
+    }
+
+    private void link(int row, int s) {
+        rowPrev[row] = NO_ROW;
+        rowNext[row] = firstRow[s];
+        if (firstRow[s] != NO_ROW) {
+            rowPrev[firstRow[s]] = row;
+        }
+        firstRow[s] = row;
+    }
+
+    private void unlink(int row) {
+        if (rowPrev[row] != NO_ROW) {
+            rowNext[rowPrev[row]] = rowNext[row];
+        } else {
+            firstRow[student[row]] = rowNext[row];
+        }
+        if (rowNext[row] != NO_ROW) {
+            rowPrev[rowNext[row]] = rowPrev[row];
+        }
+    }
+
+    private void setCredits(int ordinal, int value) {
+        if (ordinal >= credits.length) {
+            credits = Arrays.copyOf(credits, Math.max(ordinal + 1, credits.length * 2));
+        }
+        credits[ordinal] = value;
+    }
+
+    private void ensureRows(int needed) {
+        if (needed <= student.length) {
+            return;
+        }
+        int capacity = Math.max(needed, student.length * 2);
+        student = Arrays.copyOf(student, capacity);
+        course = Arrays.copyOf(course, capacity);
+        semester = Arrays.copyOf(semester, capacity);
+        score = Arrays.copyOf(score, capacity);
+        letter = Arrays.copyOf(letter, capacity);
+        rowNext = Arrays.copyOf(rowNext, capacity);
+        rowPrev = Arrays.copyOf(rowPrev, capacity);
+    }
+
+    private int rowOf(int s, int c) {
+        for (int row = firstRow[s]; row != NO_ROW; row = rowNext[row]) {
+            if (course[row] == c) {
+                return row;
+            }
+        }
+        return NO_ROW;
+    }
+}
@@ -0,0 +1,304 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.util.ValidationUtil;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports grades from CSV exports of department result sheets.
+ *
+ * Expected columns: studentId, courseCode, score, semester. A first line
+ * starting with "studentId" is treated as a header; a leading byte order
+ * mark is ignored. Rows are parsed and validated as they are streamed;
+ * valid rows are collected and committed with a single
+ * DataManager.saveGrades call, so the whole file costs one persistence
+ * flush. A later row for the same student and course replaces an earlier
+ * one.
+ *
+ * The steps can run on different threads: take a Catalog where the data is
+ * changed, parse against it in the background, and commit back where the
+ * data is changed. importCsv does all three in turn.
+ */
+public class GradeImportService {
+
+    public static class RejectedRow {
+        private final int lineNumber;
+        private final String line;
+        private final String reason;
+
+        public RejectedRow(int lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason;
+        }
+    }
+
+    public static class Result {
+        private final int imported;
+        private final List<RejectedRow> rejected;
+        private final boolean committed;
+        private final long elapsedNanos;
+
+        public Result(int imported, List<RejectedRow> rejected, boolean committed, long elapsedNanos) {
+            this.imported = imported;
+            this.rejected = Collections.unmodifiableList(rejected);
+            this.committed = committed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public List<RejectedRow> getRejected() {
+            return rejected;
+        }
+
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public double getRowsPerSecond() {
+            int rows = imported + rejected.size();
+            return elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+
+        public String getSummary() {
+            return String.format("Imported: %d\nRejected: %d\nTime: %d ms (%.0f rows/sec)%s",
+                    imported, rejected.size(), getElapsedMillis(), getRowsPerSecond(),
+                    committed ? "" : "\nWARNING: saving the imported grades failed");
+        }
+    }
+
+    /**
+     * Students and courses that rows are checked against, copied so that
+     * parsing can run on another thread
+     */
+    public static final class Catalog {
+        private final List<Student> students;
+        private final List<Course> courses;
+
+        private Catalog(List<Student> students, List<Course> courses) {
+            this.students = students;
+            this.courses = courses;
+        }
+    }
+
+    /**
+     * Rows read from a file and not yet committed
+     */
+    public static final class Parsed {
+        private final Map<GradeKey, Row> accepted;
+        private final List<RejectedRow> rejected;
+        private final long elapsedNanos;
+
+        private Parsed(Map<GradeKey, Row> accepted, List<RejectedRow> rejected, long elapsedNanos) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final class Row {
+        final int lineNumber;
+        final String line;
+        final Grade grade;
+
+        Row(int lineNumber, String line, Grade grade) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.grade = grade;
+        }
+    }
+
+    private final DataManager dataManager;
+
+    public GradeImportService(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    public Result importCsv(File file) throws IOException {
+        return commit(parse(file, catalog()));
+    }
+
+    public Result importCsv(Reader source) throws IOException {
+        return commit(parse(source, catalog()));
+    }
+
+    public Catalog catalog() {
+        return new Catalog(List.copyOf(dataManager.loadAllStudents()), List.copyOf(dataManager.loadAllCourses()));
+    }
+
+    public Parsed parse(File file, Catalog catalog) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return parse(reader, catalog);
+        }
+    }
+
+    /**
+     * Reads and validates every row; does not touch the DataManager
+     */
+    public Parsed parse(Reader source, Catalog catalog) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Student> students = new HashMap<>();
+        for (Student student : catalog.students) {
+            students.put(student.getStudentId(), student);
+        }
+        Map<String, Course> courses = new HashMap<>();
+        for (Course course : catalog.courses) {
+            courses.put(course.getCourseCode(), course);
+        }
+        Map<GradeKey, Row> accepted = new LinkedHashMap<>();
+        List<RejectedRow> rejected = new ArrayList<>();
+        BufferedReader in = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (lineNumber == 1 && line.trim().toLowerCase().startsWith("studentid")) {
+                continue;
+            }
+            String error = parseRow(lineNumber, line, students, courses, accepted);
+            if (error != null) {
+                rejected.add(new RejectedRow(lineNumber, line, error));
+            }
+        }
+        return new Parsed(accepted, rejected, System.nanoTime() - start);
+    }
+
+    /**
+     * Saves the accepted rows in one batch. Rows whose student or course
+     * was deleted since the catalog was taken are rejected.
+     */
+    public Result commit(Parsed parsed) {
+        long start = System.nanoTime();
+        List<Grade> batch = new ArrayList<>(parsed.accepted.size());
+        List<RejectedRow> rejected = new ArrayList<>(parsed.rejected);
+        for (Row row : parsed.accepted.values()) {
+            Grade grade = row.grade;
+            Student student = dataManager.findStudentById(grade.getStudent().getStudentId());
+            Course course = dataManager.findCourseByCode(grade.getCourse().getCourseCode());
+            if (student == null || course == null) {
+                rejected.add(new RejectedRow(row.lineNumber, row.line,
+                        (student == null ? "Student" : "Course") + " deleted during import"));
+            } else if (student != grade.getStudent() || course != grade.getCourse()) {
+                batch.add(new Grade(student, course, grade.getScore(), grade.getSemester()));
+            } else {
+                batch.add(grade);
+            }
+        }
+        rejected.sort((a, b) -> Integer.compare(a.getLineNumber(), b.getLineNumber()));
+        boolean committed = batch.isEmpty() || dataManager.saveGrades(batch);
+        return new Result(batch.size(), rejected, committed,
+                parsed.elapsedNanos + System.nanoTime() - start);
+    }
+
+    /**
+     * Validates one row and adds it to the accepted rows.
+     * @return the rejection reason, or null if the row was accepted
+     */
+    private String parseRow(int lineNumber, String line, Map<String, Student> students,
+                            Map<String, Course> courses, Map<GradeKey, Row> accepted) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 4) {
+            return "Expected 4 columns, found " + fields.size();
+        }
+        String studentId = ValidationUtil.sanitize(fields.get(0));
+        String courseCode = ValidationUtil.sanitize(fields.get(1));
+        String semester = ValidationUtil.sanitize(fields.get(3));
+        if (!ValidationUtil.isValidStudentId(studentId)) {
+            return "Invalid student ID: " + studentId;
+        }
+        if (!ValidationUtil.isValidCourseCode(courseCode)) {
+            return "Invalid course code: " + courseCode;
+        }
+        double score;
+        try {
+            score = Double.parseDouble(ValidationUtil.sanitize(fields.get(2)));
+        } catch (NumberFormatException e) {
+            return "Invalid score: " + fields.get(2);
+        }
+        if (!ValidationUtil.isValidScore(score)) {
+            return "Score out of range: " + score;
+        }
+        if (ValidationUtil.isEmpty(semester)) {
+            return "Missing semester";
+        }
+        Student student = students.get(studentId);
+        if (student == null) {
+            return "Unknown student: " + studentId;
+        }
+        Course course = courses.get(courseCode);
+        if (course == null) {
+            return "Unknown course: " + courseCode;
+        }
+        accepted.put(new GradeKey(studentId, courseCode),
+                new Row(lineNumber, line, new Grade(student, course, score, semester)));
+        return null;
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and "" escapes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
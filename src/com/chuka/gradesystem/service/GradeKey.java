@@ -0,0 +1,49 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.Grade;
+import java.util.Objects;
+
+/**
+ * Composite primary key of a grade: one grade per (studentId, courseCode).
+ */
+public final class GradeKey {
+    private final String studentId;
+    private final String courseCode;
+
+    public GradeKey(String studentId, String courseCode) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+    }
+
+    public static GradeKey of(Grade grade) {
+        return new GradeKey(grade.getStudent().getStudentId(),
+                grade.getCourse().getCourseCode());
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GradeKey key = (GradeKey) o;
+        return Objects.equals(studentId, key.studentId)
+                && Objects.equals(courseCode, key.courseCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(studentId, courseCode);
+    }
+
+    @Override
+    public String toString() {
+        return studentId + "/" + courseCode;
+    }
+}
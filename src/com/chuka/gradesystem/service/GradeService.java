@@ -1,9 +1,43 @@
 package com.chuka.gradesystem.service;
 
 import com.chuka.gradesystem.model.*;
+import com.chuka.gradesystem.util.Constants;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class GradeService implements GradeCalculator {
+public class GradeService implements GradeCalculator, DataChangeListener {
+
+    // Running sums behind a student's CGPA
+    private static final class GpaAggregate {
+        double points;
+        int credits;
+    }
+
+    private final DataManager dataManager;
+    private final Map<String, GpaAggregate> aggregates = new HashMap<>();
+    // Credits each course contributed to the aggregates, to apply credit edits as deltas
+    private final Map<String, Integer> appliedCredits = new HashMap<>();
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Stateless service: CGPA is computed from the student's grade list.
+     */
+    public GradeService() {
+        this.dataManager = null;
+    }
+
+    /**
+     * Service with an incrementally maintained CGPA cache, kept current by
+     * listening to the data manager's grade and course changes.
+     */
+    public GradeService(DataManager dataManager) {
+        this.dataManager = dataManager;
+        dataManager.addChangeListener(this);
+    }
 
     @Override
     public double calculateGPA(List<Grade> grades) {
@@ -27,42 +61,23 @@ public class GradeService implements GradeCalculator {
         if (student == null) {
             return 0.0;
         }
-        return calculateGPA(student.getGrades());
+        if (dataManager == null) {
+            return calculateGPA(student.getGrades());
+        }
+        synchronized (this) {
+            GpaAggregate aggregate = aggregateFor(student.getStudentId());
+            return aggregate.credits > 0 ? aggregate.points / aggregate.credits : 0.0;
+        }
     }
 
     @Override
-    public String getLetterGrade(double score) {
-        if (score >= 70) {
-            return "A";
-        } else if (score >= 60) {
-            return "B";
-        } else if (score >= 50) {
-            return "C";
-        } else if (score >= 40) {
-            return "D";
-        } else {
-            return "F";
-        }
+    public LetterGrade getLetterGrade(double score) {
+        return GradingScheme.current().getLetterGrade(score);
     }
 
     @Override
-    public double getGradePoint(String letterGrade) {
-        if (letterGrade == null) {
-            return 0.0;
-        }
-        switch (letterGrade.toUpperCase()) {
-            case "A":
-                return 4.0;
-            case "B":
-                return 3.0;
-            case "C":
-                return 2.0;
-            case "D":
-                return 1.0;
-            case "F":
-            default:
-                return 0.0;
-        }
+    public double getGradePoint(LetterGrade letterGrade) {
+        return GradingScheme.current().getGradePoint(letterGrade);
     }
 
     @Override
@@ -86,55 +101,180 @@ public class GradeService implements GradeCalculator {
             return false;
         }
         double cgpa = calculateCGPA(student);
-        return cgpa >= 3.5;
+        return cgpa >= Constants.HONOR_ROLL_MIN;
     }
 
     @Override
-    public String getClassStanding(double gpa) {
-        if (gpa >= 3.5) {
-            return "First Class";
-        } else if (gpa >= 3.0) {
-            return "Second Class Upper";
-        } else if (gpa >= 2.5) {
-            return "Second Class Lower";
-        } else if (gpa >= 2.0) {
-            return "Pass";
-        } else {
-            return "Fail";
-        }
+    public ClassStanding getClassStanding(double gpa) {
+        return ClassStanding.of(gpa);
     }
 
     public String getGradeStatistics(List<Grade> grades) {
         if (grades == null || grades.isEmpty()) {
             return "No grades available";
         }
-        int countA = 0, countB = 0, countC = 0, countD = 0, countF = 0;
-        double totalScore = 0.0;
-        for (Grade grade : grades) {
-            totalScore += grade.getScore();
-            String letter = grade.getLetterGrade();
-            switch (letter) {
-                case "A": countA++; break;
-                case "B": countB++; break;
-                case "C": countC++; break;
-                case "D": countD++; break;
-                case "F": countF++; break;
-            }
-        }
-        double averageScore = totalScore / grades.size();
+        GradeStatistics.Summary summary = GradeStatistics.of(grades);
         double gpa = calculateGPA(grades);
         StringBuilder stats = new StringBuilder();
         stats.append("=== GRADE STATISTICS ===\n");
         stats.append(String.format("Total Courses: %d\n", grades.size()));
-        stats.append(String.format("Average Score: %.2f\n", averageScore));
+        stats.append(String.format("Average Score: %.2f\n", summary.getMean()));
         stats.append(String.format("GPA: %.2f\n", gpa));
         stats.append(String.format("Class Standing: %s\n", getClassStanding(gpa)));
         stats.append("\nGrade Distribution:\n");
-        stats.append(String.format("A: %d\n", countA));
-        stats.append(String.format("B: %d\n", countB));
-        stats.append(String.format("C: %d\n", countC));
-        stats.append(String.format("D: %d\n", countD));
-        stats.append(String.format("F: %d\n", countF));
+        for (GradingScheme.Band band : GradingScheme.current().getBands()) {
+            stats.append(String.format("%s: %d\n", band.getLetter(), summary.getLetterCount(band.getLetter())));
+        }
         return stats.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Make a scheme current and regrade every stored grade under it. Only
+     * grades whose letter or grade point changes are replaced, in one batch
+     * @return number of grades replaced
+     */
+    public int applyGradingScheme(GradingScheme scheme) {
+        GradingScheme.setCurrent(scheme);
+        if (dataManager == null) {
+            return 0;
+        }
+        List<Grade> changed = new ArrayList<>();
+        for (Grade grade : dataManager.loadAllGrades()) {
+            GradingScheme.Band band = scheme.classify(grade.getScore());
+            if (band.getLetter() != grade.getLetterGrade()
+                    || band.getGradePoint() != grade.getGradePoint()) {
+                changed.add(new Grade(grade.getStudent(), grade.getCourse(),
+                        grade.getScore(), grade.getSemester()));
+            }
+        }
+        if (!changed.isEmpty() && !dataManager.saveGrades(changed)) {
+            System.err.println("Error saving regraded grades");
+        }
+        return changed.size();
+    }
+
+    /**
+     * Statistics over every grade in the data manager, overall and per
+     * course, department and semester, computed in one parallel pass
+     */
+    public GradeStatistics.Report getCohortStatistics() {
+        if (dataManager == null) {
+            throw new IllegalStateException("Cohort statistics need a data manager");
+        }
+        return getCohortStatistics(dataManager.loadAllGrades());
+    }
+
+    /**
+     * Statistics over the given grades, e.g. a loadAllGrades() list taken
+     * where the data is changed and summarised on another thread
+     */
+    public GradeStatistics.Report getCohortStatistics(Collection<Grade> grades) {
+        return GradeStatistics.cohortOf(grades);
+    }
+
+    /**
+     * Register for the data manager's changes, delivered after the CGPA
+     * cache has taken them in, so calculateCGPA already reflects each one
+     */
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void dataChanged(DataChangeEvent event) {
+        synchronized (this) {
+            updateCache(event);
+        }
+        for (DataChangeListener listener : listeners) {
+            listener.dataChanged(event);
+        }
+    }
+
+    private void updateCache(DataChangeEvent event) {
+        switch (event.getType()) {
+            case GRADE_SAVED: {
+                Grade grade = (Grade) event.getEntity();
+                GpaAggregate aggregate = aggregates.get(grade.getStudent().getStudentId());
+                if (aggregate != null) {
+                    if (event.getPrevious() != null) {
+                        apply(aggregate, (Grade) event.getPrevious(), -1);
+                    }
+                    apply(aggregate, grade, 1);
+                }
+                break;
+            }
+            case GRADE_DELETED: {
+                Grade grade = (Grade) event.getEntity();
+                GpaAggregate aggregate = aggregates.get(grade.getStudent().getStudentId());
+                if (aggregate != null) {
+                    apply(aggregate, grade, -1);
+                }
+                break;
+            }
+            case COURSE_SAVED:
+                applyCreditChange((Course) event.getEntity());
+                break;
+            case COURSE_DELETED:
+                appliedCredits.remove(((Course) event.getEntity()).getCourseCode());
+                break;
+            case STUDENT_DELETED:
+                aggregates.remove(((Student) event.getEntity()).getStudentId());
+                break;
+            case DATA_RELOADED:
+                aggregates.clear();
+                appliedCredits.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private GpaAggregate aggregateFor(String studentId) {
+        GpaAggregate aggregate = aggregates.get(studentId);
+        if (aggregate == null) {
+            aggregate = new GpaAggregate();
+            for (Grade grade : dataManager.getGradesByStudent(studentId)) {
+                apply(aggregate, grade, 1);
+            }
+            aggregates.put(studentId, aggregate);
+        }
+        return aggregate;
+    }
+
+    private void apply(GpaAggregate aggregate, Grade grade, int sign) {
+        Course course = grade.getCourse();
+        if (course == null) {
+            return;
+        }
+        int credits = appliedCredits.computeIfAbsent(course.getCourseCode(), code -> {
+            // The grade may still reference the course as it was before an edit
+            Course current = dataManager.findCourseByCode(code);
+            return current != null ? current.getCredits() : course.getCredits();
+        });
+        aggregate.points += sign * grade.getGradePoint() * credits;
+        aggregate.credits += sign * credits;
+    }
+
+    private void applyCreditChange(Course course) {
+        Integer applied = appliedCredits.get(course.getCourseCode());
+        if (applied == null || applied == course.getCredits()) {
+            return;
+        }
+        int delta = course.getCredits() - applied;
+        appliedCredits.put(course.getCourseCode(), course.getCredits());
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        for (Grade grade : dataManager.getGradesByCourse(course.getCourseCode())) {
+            GpaAggregate aggregate = aggregates.get(grade.getStudent().getStudentId());
+            if (aggregate != null) {
+                aggregate.points += grade.getGradePoint() * delta;
+                aggregate.credits += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.LetterGrade;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+/**
+ * Score statistics over a set of grades: mean, standard deviation, median,
+ * percentiles, letter distribution and pass rate.
+ *
+ * Grades are folded into mergeable accumulators, so a whole grade set is
+ * analysed in one pass and the work splits across threads with a parallel
+ * stream. cohort() summarises the set overall and per course, department
+ * and semester in that same pass:
+ *
+ *   GradeStatistics.Report report = grades.parallelStream().collect(GradeStatistics.cohort());
+ *
+ * Mean and variance use Welford's update, combined with Chan's formula when
+ * partial results are merged. Scores are kept in a flat array and sorted
+ * once when the summary is built, so median and percentiles are exact.
+ */
+public final class GradeStatistics {
+
+    private GradeStatistics() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * @return a collector summarising the scores of a grade stream
+     */
+    public static Collector<Grade, Accumulator, Summary> summarizing() {
+        return Collector.of(Accumulator::new, Accumulator::add, Accumulator::merge,
+                Accumulator::toSummary, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * @return a collector summarising a grade stream overall and per course,
+     *         department and semester
+     */
+    public static Collector<Grade, CohortAccumulator, Report> cohort() {
+        return Collector.of(CohortAccumulator::new, CohortAccumulator::add,
+                CohortAccumulator::merge, CohortAccumulator::toReport,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static Summary of(Collection<Grade> grades) {
+        return grades.stream().collect(summarizing());
+    }
+
+    /**
+     * Summary of every row of a columnar grade store, read without
+     * materializing Grade objects
+     */
+    public static Summary of(GradeColumns columns) {
+        return columns.read(c -> {
+            Accumulator accumulator = new Accumulator();
+            for (int row = 0; row < c.size(); row++) {
+                accumulator.add(c.score(row), c.letter(row), c.gradePoint(row) > 0);
+            }
+            return accumulator.toSummary();
+        });
+    }
+
+    public static Report cohortOf(Collection<Grade> grades) {
+        return grades.parallelStream().collect(cohort());
+    }
+
+    /**
+     * Mutable running totals for one group of grades. Not thread-safe; a
+     * parallel collect gives each thread its own and merges them.
+     */
+    public static final class Accumulator {
+        private long count;
+        private double mean;
+        private double m2;
+        private double[] scores = new double[16];
+        private final long[] letters = new long[LetterGrade.COUNT];
+        private long passed;
+
+        public void add(Grade grade) {
+            LetterGrade letter = grade.getLetterGrade();
+            add(grade.getScore(), letter == null ? -1 : letter.ordinal(), grade.getGradePoint() > 0);
+        }
+
+        /**
+         * @param letter ordinal of the LetterGrade, or -1 if unknown
+         */
+        public void add(double score, int letter, boolean passed) {
+            count++;
+            double delta = score - mean;
+            mean += delta / count;
+            m2 += delta * (score - mean);
+
+            if (count > scores.length) {
+                scores = Arrays.copyOf(scores, scores.length * 2);
+            }
+            scores[(int) count - 1] = score;
+
+            if (letter >= 0) {
+                letters[letter]++;
+            }
+            if (passed) {
+                this.passed++;
+            }
+        }
+
+        public Accumulator merge(Accumulator other) {
+            if (other.count == 0) {
+                return this;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            mean += delta * other.count / total;
+
+            if (total > scores.length) {
+                scores = Arrays.copyOf(scores, (int) Math.max(total, scores.length * 2L));
+            }
+            System.arraycopy(other.scores, 0, scores, (int) count, (int) other.count);
+            count = total;
+
+            for (int i = 0; i < letters.length; i++) {
+                letters[i] += other.letters[i];
+            }
+            passed += other.passed;
+            return this;
+        }
+
+        public Summary toSummary() {
+            double[] sorted = Arrays.copyOf(scores, (int) count);
+            Arrays.sort(sorted);
+            return new Summary(count, mean, count > 0 ? Math.sqrt(m2 / count) : 0.0,
+                    sorted, letters.clone(), passed);
+        }
+    }
+
+    /**
+     * One Accumulator for the whole set plus one per course, department and
+     * semester. A grade with no semester or department is grouped under "".
+     */
+    public static final class CohortAccumulator {
+        private final Accumulator overall = new Accumulator();
+        private final Map<String, Accumulator> byCourse = new HashMap<>();
+        private final Map<String, Accumulator> byDepartment = new HashMap<>();
+        private final Map<String, Accumulator> bySemester = new HashMap<>();
+
+        public void add(Grade grade) {
+            overall.add(grade);
+            if (grade.getCourse() != null) {
+                group(byCourse, grade.getCourse().getCourseCode()).add(grade);
+            }
+            if (grade.getStudent() != null) {
+                group(byDepartment, Objects.toString(grade.getStudent().getDepartment(), "")).add(grade);
+            }
+            group(bySemester, Objects.toString(grade.getSemester(), "")).add(grade);
+        }
+
+        public CohortAccumulator merge(CohortAccumulator other) {
+            overall.merge(other.overall);
+            mergeGroups(byCourse, other.byCourse);
+            mergeGroups(byDepartment, other.byDepartment);
+            mergeGroups(bySemester, other.bySemester);
+            return this;
+        }
+
+        public Report toReport() {
+            return new Report(overall.toSummary(), summaries(byCourse),
+                    summaries(byDepartment), summaries(bySemester));
+        }
+
+        private static Accumulator group(Map<String, Accumulator> groups, String key) {
+            Accumulator accumulator = groups.get(key);
+            if (accumulator == null) {
+                accumulator = new Accumulator();
+                groups.put(key, accumulator);
+            }
+            return accumulator;
+        }
+
+        private static void mergeGroups(Map<String, Accumulator> into, Map<String, Accumulator> from) {
+            from.forEach((key, accumulator) ->
+                    into.merge(key, accumulator, Accumulator::merge));
+        }
+
+        private static Map<String, Summary> summaries(Map<String, Accumulator> groups) {
+            Map<String, Summary> result = new TreeMap<>();
+            groups.forEach((key, accumulator) -> result.put(key, accumulator.toSummary()));
+            return Collections.unmodifiableMap(result);
+        }
+    }
+
+    /**
+     * Immutable statistics for one group of grades. Score values are zero
+     * for an empty group.
+     */
+    public static final class Summary {
+        private final long count;
+        private final double mean;
+        private final double standardDeviation;
+        private final double[] sortedScores;
+        private final long[] letters;
+        private final long passed;
+
+        private Summary(long count, double mean, double standardDeviation,
+                        double[] sortedScores, long[] letters, long passed) {
+            this.count = count;
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+            this.sortedScores = sortedScores;
+            this.letters = letters;
+            this.passed = passed;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * Population standard deviation of the scores
+         */
+        public double getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        public double getMin() {
+            return count > 0 ? sortedScores[0] : 0.0;
+        }
+
+        public double getMax() {
+            return count > 0 ? sortedScores[sortedScores.length - 1] : 0.0;
+        }
+
+        public double getMedian() {
+            return getPercentile(50);
+        }
+
+        /**
+         * Score at a percentile, interpolating linearly between ranks
+         * @param percentile 0 to 100
+         */
+        public double getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            double rank = percentile / 100 * (sortedScores.length - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = (int) Math.ceil(rank);
+            return sortedScores[lower] + (rank - lower) * (sortedScores[upper] - sortedScores[lower]);
+        }
+
+        /**
+         * @return number of grades with the letter
+         */
+        public long getLetterCount(LetterGrade letterGrade) {
+            return letters[letterGrade.ordinal()];
+        }
+
+        public long getPassCount() {
+            return passed;
+        }
+
+        /**
+         * Fraction of grades with a non-zero grade point, 0 to 1
+         */
+        public double getPassRate() {
+            return count > 0 ? (double) passed / count : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.2f sd=%.2f median=%.2f pass=%.1f%%",
+                    count, mean, standardDeviation, getMedian(), getPassRate() * 100);
+        }
+    }
+
+    /**
+     * Immutable cohort statistics: the whole grade set plus per-group
+     * summaries, each map sorted by key.
+     */
+    public static final class Report {
+        private final Summary overall;
+        private final Map<String, Summary> byCourse;
+        private final Map<String, Summary> byDepartment;
+        private final Map<String, Summary> bySemester;
+
+        private Report(Summary overall, Map<String, Summary> byCourse,
+                       Map<String, Summary> byDepartment, Map<String, Summary> bySemester) {
+            this.overall = overall;
+            this.byCourse = byCourse;
+            this.byDepartment = byDepartment;
+            this.bySemester = bySemester;
+        }
+
+        public Summary getOverall() {
+            return overall;
+        }
+
+        public Map<String, Summary> getByCourse() {
+            return byCourse;
+        }
+
+        public Map<String, Summary> getByDepartment() {
+            return byDepartment;
+        }
+
+        public Map<String, Summary> getBySemester() {
+            return bySemester;
+        }
+    }
+}
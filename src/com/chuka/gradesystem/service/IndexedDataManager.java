@@ -0,0 +1,398 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory DataManager backed by hash indexes on the primary keys:
+ * studentId, courseCode and (studentId, courseCode) for grades.
+ *
+ * Lookups, upserts and deletes by key are O(1). Insertion order is kept so
+ * the load* methods return records in the same order as before.
+ * Grades are also indexed by student, course and semester, so the
+ * getGradesBy* queries and cascading deletes cost time proportional to the
+ * number of grades involved. A grade must be saved again after its
+ * semester is changed for the semester index to follow.
+ * Persistence is left to subclasses through the persist* hooks; on its own
+ * this class keeps everything in memory only.
+ *
+ * Each student's grade list is kept in step with the grade index, and every
+ * change is published to the registered DataChangeListeners.
+ *
+ * The load* methods return unmodifiable snapshots that are copied once
+ * after a change and then shared, so repeated calls cost nothing until the
+ * next write, and a snapshot can be iterated while writes proceed.
+ */
+public class IndexedDataManager implements DataManager {
+    // Not final so adopt() can take over a manager loaded on another thread
+    private Map<String, Student> students = new LinkedHashMap<>();
+    private Map<String, Course> courses = new LinkedHashMap<>();
+    private Map<GradeKey, Grade> grades = new LinkedHashMap<>();
+    private Map<String, Map<GradeKey, Grade>> gradesByStudent = new HashMap<>();
+    private Map<String, Map<GradeKey, Grade>> gradesByCourse = new HashMap<>();
+    private Map<String, Map<GradeKey, Grade>> gradesBySemester = new HashMap<>();
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final SnapshotCache<Student> studentSnapshot = new SnapshotCache<>(() -> students.values());
+    private final SnapshotCache<Course> courseSnapshot = new SnapshotCache<>(() -> courses.values());
+    private final SnapshotCache<Grade> gradeSnapshot = new SnapshotCache<>(() -> grades.values());
+
+    @Override
+    public boolean saveStudent(Student student) {
+        if (student == null) {
+            return false;
+        }
+        // Upsert: an existing student keeps its position, as updateStudent does
+        Student previous = students.put(student.getStudentId(), student);
+        studentSnapshot.invalidate();
+        fireDataChanged(DataChangeEvent.Type.STUDENT_SAVED, student, previous);
+        return persistStudents();
+    }
+
+    @Override
+    public List<Student> loadAllStudents() {
+        return studentSnapshot.get();
+    }
+
+    @Override
+    public Student findStudentById(String studentId) {
+        return students.get(studentId);
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        if (student == null || !students.containsKey(student.getStudentId())) {
+            return false;
+        }
+        Student previous = students.put(student.getStudentId(), student);
+        studentSnapshot.invalidate();
+        fireDataChanged(DataChangeEvent.Type.STUDENT_SAVED, student, previous);
+        return persistStudents();
+    }
+
+    @Override
+    public boolean deleteStudent(String studentId) {
+        Student removed = students.remove(studentId);
+        if (removed == null) {
+            return false;
+        }
+        studentSnapshot.invalidate();
+        removeGrades(getGradesByStudent(studentId));
+        fireDataChanged(DataChangeEvent.Type.STUDENT_DELETED, removed, null);
+        persistGrades();
+        return persistStudents();
+    }
+
+    @Override
+    public boolean saveCourse(Course course) {
+        if (course == null) {
+            return false;
+        }
+        Course previous = courses.put(course.getCourseCode(), course);
+        courseSnapshot.invalidate();
+        fireDataChanged(DataChangeEvent.Type.COURSE_SAVED, course, previous);
+        return persistCourses();
+    }
+
+    @Override
+    public List<Course> loadAllCourses() {
+        return courseSnapshot.get();
+    }
+
+    @Override
+    public Course findCourseByCode(String courseCode) {
+        return courses.get(courseCode);
+    }
+
+    @Override
+    public boolean updateCourse(Course course) {
+        if (course == null || !courses.containsKey(course.getCourseCode())) {
+            return false;
+        }
+        Course previous = courses.put(course.getCourseCode(), course);
+        courseSnapshot.invalidate();
+        fireDataChanged(DataChangeEvent.Type.COURSE_SAVED, course, previous);
+        return persistCourses();
+    }
+
+    @Override
+    public boolean deleteCourse(String courseCode) {
+        Course removed = courses.remove(courseCode);
+        if (removed == null) {
+            return false;
+        }
+        courseSnapshot.invalidate();
+        removeGrades(getGradesByCourse(courseCode));
+        fireDataChanged(DataChangeEvent.Type.COURSE_DELETED, removed, null);
+        persistGrades();
+        return persistCourses();
+    }
+
+    @Override
+    public boolean saveGrade(Grade grade) {
+        if (!isComplete(grade)) {
+            return false;
+        }
+        // The grade is linked into student.getGrades() in memory, but grades are
+        // persisted apart from the student file, so only grades are rewritten
+        putGrade(grade);
+        return persistGrades();
+    }
+
+    @Override
+    public boolean saveGrades(Collection<Grade> batch) {
+        for (Grade grade : batch) {
+            if (isComplete(grade)) {
+                putGrade(grade);
+            }
+        }
+        return persistGrades();
+    }
+
+    @Override
+    public List<Grade> loadAllGrades() {
+        return gradeSnapshot.get();
+    }
+
+    @Override
+    public List<Grade> getGradesByStudent(String studentId) {
+        return lookup(gradesByStudent, studentId);
+    }
+
+    @Override
+    public List<Grade> getGradesByCourse(String courseCode) {
+        return lookup(gradesByCourse, courseCode);
+    }
+
+    @Override
+    public List<Grade> getGradesBySemester(String semester) {
+        return lookup(gradesBySemester, Objects.toString(semester, ""));
+    }
+
+    @Override
+    public boolean deleteGrade(Student student, Course course) {
+        GradeKey key = new GradeKey(student.getStudentId(), course.getCourseCode());
+        Grade removed = grades.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        gradeSnapshot.invalidate();
+        unindex(key, removed);
+        unlinkFromStudent(removed);
+        fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, removed, null);
+        return persistGrades();
+    }
+
+    @Override
+    public boolean saveAllData() {
+        boolean success = true;
+        success &= persistStudents();
+        success &= persistCourses();
+        success &= persistGrades();
+        return success;
+    }
+
+    @Override
+    public boolean loadAllData() {
+        return true;
+    }
+
+    @Override
+    public boolean clearAllData() {
+        students.clear();
+        courses.clear();
+        grades.clear();
+        gradesByStudent.clear();
+        gradesByCourse.clear();
+        gradesBySemester.clear();
+        invalidateSnapshots();
+        fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+        return saveAllData();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> pendingWrites() {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    protected void fireDataChanged(DataChangeEvent.Type type, Object entity, Object previous) {
+        long current = version.incrementAndGet();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        DataChangeEvent event = new DataChangeEvent(type, entity, previous, current);
+        for (DataChangeListener listener : listeners) {
+            listener.dataChanged(event);
+        }
+    }
+
+    private void removeGrades(List<Grade> owned) {
+        for (Grade grade : owned) {
+            GradeKey key = GradeKey.of(grade);
+            grades.remove(key);
+            gradeSnapshot.invalidate();
+            unindex(key, grade);
+            unlinkFromStudent(grade);
+            fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, grade, null);
+        }
+    }
+
+    private static List<Grade> lookup(Map<String, Map<GradeKey, Grade>> index, String value) {
+        Map<GradeKey, Grade> bucket = index.get(value);
+        return bucket == null ? Collections.emptyList() : new ArrayList<>(bucket.values());
+    }
+
+    private void index(GradeKey key, Grade grade) {
+        gradesByStudent.computeIfAbsent(key.getStudentId(), k -> new LinkedHashMap<>()).put(key, grade);
+        gradesByCourse.computeIfAbsent(key.getCourseCode(), k -> new LinkedHashMap<>()).put(key, grade);
+        gradesBySemester.computeIfAbsent(Objects.toString(grade.getSemester(), ""),
+                k -> new LinkedHashMap<>()).put(key, grade);
+    }
+
+    private void unindex(GradeKey key, Grade grade) {
+        unindex(gradesByStudent, key.getStudentId(), key);
+        unindex(gradesByCourse, key.getCourseCode(), key);
+        unindex(gradesBySemester, Objects.toString(grade.getSemester(), ""), key);
+    }
+
+    private static void unindex(Map<String, Map<GradeKey, Grade>> index, String value, GradeKey key) {
+        Map<GradeKey, Grade> bucket = index.get(value);
+        if (bucket != null) {
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private static boolean isComplete(Grade grade) {
+        return grade != null && grade.getStudent() != null && grade.getCourse() != null;
+    }
+
+    /**
+     * Upserts the grade in memory and links it into its student's grade list.
+     */
+    private void putGrade(Grade grade) {
+        GradeKey key = GradeKey.of(grade);
+        // Re-saving a grade moves it to the end, as the list-based store did
+        Grade previous = grades.remove(key);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        grades.put(key, grade);
+        gradeSnapshot.invalidate();
+        index(key, grade);
+        Student student = findStudentById(key.getStudentId());
+        if (student != null) {
+            if (previous != null) {
+                student.getGrades().remove(previous);
+            }
+            student.addGrade(grade);
+        }
+        fireDataChanged(DataChangeEvent.Type.GRADE_SAVED, grade, previous);
+    }
+
+    private void unlinkFromStudent(Grade grade) {
+        Student student = findStudentById(grade.getStudent().getStudentId());
+        if (student != null) {
+            student.getGrades().remove(grade);
+        }
+    }
+
+    // INDEX MAINTENANCE - used by subclasses when loading from storage
+
+    protected void replaceStudents(List<Student> loaded) {
+        students.clear();
+        for (Student student : loaded) {
+            students.put(student.getStudentId(), student);
+        }
+        studentSnapshot.invalidate();
+    }
+
+    protected void replaceCourses(List<Course> loaded) {
+        courses.clear();
+        for (Course course : loaded) {
+            courses.put(course.getCourseCode(), course);
+        }
+        courseSnapshot.invalidate();
+    }
+
+    protected void replaceGrades(List<Grade> loaded) {
+        grades.clear();
+        gradesByStudent.clear();
+        gradesByCourse.clear();
+        gradesBySemester.clear();
+        for (Grade grade : loaded) {
+            if (grade.getStudent() != null && grade.getCourse() != null) {
+                GradeKey key = GradeKey.of(grade);
+                Grade previous = grades.put(key, grade);
+                if (previous != null) {
+                    unindex(key, previous);
+                }
+                index(key, grade);
+            }
+        }
+        gradeSnapshot.invalidate();
+    }
+
+    /**
+     * Takes over all records and indexes of a manager filled elsewhere, e.g.
+     * on a loader thread, without copying them. Listeners are not notified
+     * and the source must not be used afterwards.
+     */
+    protected void adopt(IndexedDataManager loaded) {
+        students = loaded.students;
+        courses = loaded.courses;
+        grades = loaded.grades;
+        gradesByStudent = loaded.gradesByStudent;
+        gradesByCourse = loaded.gradesByCourse;
+        gradesBySemester = loaded.gradesBySemester;
+        invalidateSnapshots();
+    }
+
+    private void invalidateSnapshots() {
+        studentSnapshot.invalidate();
+        courseSnapshot.invalidate();
+        gradeSnapshot.invalidate();
+    }
+
+    // PERSISTENCE HOOKS - no-ops for the in-memory store
+
+    protected boolean persistStudents() {
+        return true;
+    }
+
+    protected boolean persistCourses() {
+        return true;
+    }
+
+    protected boolean persistGrades() {
+        return true;
+    }
+}
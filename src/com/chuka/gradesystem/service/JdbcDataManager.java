@@ -0,0 +1,640 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataManager backed by an embedded SQL database, e.g. an H2 or SQLite
+ * file, for archives that are too large to rewrite as whole files.
+ *
+ * Students, courses, enrollments and grades are rows of their own tables.
+ * Grades are keyed by (student_id, course_code) and indexed by course and
+ * semester, so the getGradesBy* queries read only the rows involved. Every
+ * change is written through in its own transaction; saveGrades sends its
+ * rows as JDBC batches in one transaction. Rows carry a sequence number so
+ * the load* methods keep the insertion order of the other DataManagers.
+ *
+ * As in MappedDataManager, students and courses are also held in the hash
+ * indexes while grades are only materialized when queried, so
+ * Student.getGrades() is not populated; use getGradesByStudent, or
+ * GradeService.calculateCGPA for a student's GPA. The views do, so the
+ * GPA they show does not depend on the backend.
+ *
+ * The database is named with -Dgradesystem.jdbcUrl, plus
+ * gradesystem.jdbcUser and gradesystem.jdbcPassword if it needs them, and
+ * its JDBC driver must be on the classpath. Only portable SQL is used.
+ * Existing .dat files are copied in with {@link DataMigration}.
+ */
+public class JdbcDataManager extends IndexedDataManager implements Closeable {
+    public static final String URL_PROPERTY = "gradesystem.jdbcUrl";
+    public static final String USER_PROPERTY = "gradesystem.jdbcUser";
+    public static final String PASSWORD_PROPERTY = "gradesystem.jdbcPassword";
+
+    private static final int POOL_SIZE = 4;
+    // Rows sent per executeBatch call
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS courses (course_code VARCHAR(64) PRIMARY KEY, course_name VARCHAR(255),"
+                + " credits INT NOT NULL, instructor VARCHAR(255), description VARCHAR(4000), seq BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS students (student_id VARCHAR(64) PRIMARY KEY, person_id VARCHAR(64),"
+                + " student_name VARCHAR(255), email VARCHAR(255), phone VARCHAR(64), department VARCHAR(255),"
+                + " year_of_study INT NOT NULL, seq BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS enrollments (student_id VARCHAR(64) NOT NULL, course_code VARCHAR(64) NOT NULL,"
+                + " seq INT NOT NULL, PRIMARY KEY (student_id, course_code))",
+        "CREATE TABLE IF NOT EXISTS grades (student_id VARCHAR(64) NOT NULL, course_code VARCHAR(64) NOT NULL,"
+                + " score DOUBLE PRECISION NOT NULL, semester VARCHAR(64), seq BIGINT NOT NULL,"
+                + " PRIMARY KEY (student_id, course_code))",
+        "CREATE INDEX IF NOT EXISTS grades_by_course ON grades (course_code)",
+        "CREATE INDEX IF NOT EXISTS grades_by_semester ON grades (semester)",
+        "CREATE INDEX IF NOT EXISTS grades_by_seq ON grades (seq)"
+    };
+
+    // Update and insert statements bind the same parameters in the same
+    // order, the key last but for the sequence number of a new row
+    private static final String UPDATE_COURSE =
+            "UPDATE courses SET course_name = ?, credits = ?, instructor = ?, description = ? WHERE course_code = ?";
+    private static final String INSERT_COURSE =
+            "INSERT INTO courses (course_name, credits, instructor, description, course_code, seq) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STUDENT = "UPDATE students SET person_id = ?, student_name = ?, email = ?,"
+            + " phone = ?, department = ?, year_of_study = ? WHERE student_id = ?";
+    private static final String INSERT_STUDENT = "INSERT INTO students (person_id, student_name, email, phone,"
+            + " department, year_of_study, student_id, seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ENROLLMENT =
+            "INSERT INTO enrollments (student_id, course_code, seq) VALUES (?, ?, ?)";
+    // A re-saved grade moves to the end, as in IndexedDataManager
+    private static final String UPDATE_GRADE =
+            "UPDATE grades SET score = ?, semester = ?, seq = ? WHERE student_id = ? AND course_code = ?";
+    private static final String INSERT_GRADE =
+            "INSERT INTO grades (score, semester, seq, student_id, course_code) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_GRADES = "SELECT student_id, course_code, score, semester FROM grades";
+    private static final String GRADE_BY_KEY = SELECT_GRADES + " WHERE student_id = ? AND course_code = ?";
+
+    private interface Binder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    private final ConnectionPool pool;
+    private final AtomicLong nextSeq = new AtomicLong();
+
+    /**
+     * Opens the database, creating the tables if needed, and loads the
+     * students and courses
+     * @param user database user, or null if the URL needs none
+     * @throws SQLException if the database cannot be opened, e.g. because
+     *                      no driver for the URL is on the classpath
+     */
+    public JdbcDataManager(String url, String user, String password) throws SQLException {
+        pool = new ConnectionPool(url, user, password, POOL_SIZE);
+        pool.inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+            return null;
+        });
+        if (!loadAllData()) {
+            pool.close();
+            throw new SQLException("Could not load " + url);
+        }
+    }
+
+    /**
+     * Opens the database named by the gradesystem.jdbcUrl property
+     * @return null if the property is not set
+     */
+    public static JdbcDataManager openConfigured() throws SQLException {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null) {
+            return null;
+        }
+        return new JdbcDataManager(url, System.getProperty(USER_PROPERTY), System.getProperty(PASSWORD_PROPERTY));
+    }
+
+    public String getUrl() {
+        return pool.getUrl();
+    }
+
+    @Override
+    public boolean saveStudent(Student student) {
+        return student != null
+                && write("saving student", connection -> putStudent(connection, student))
+                && super.saveStudent(student);
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        return student != null && findStudentById(student.getStudentId()) != null
+                && write("updating student", connection -> putStudent(connection, student))
+                && super.updateStudent(student);
+    }
+
+    @Override
+    public boolean deleteStudent(String studentId) {
+        if (findStudentById(studentId) == null) {
+            return false;
+        }
+        List<Grade> owned = getGradesByStudent(studentId);
+        boolean deleted = write("deleting student", connection -> {
+            delete(connection, "DELETE FROM grades WHERE student_id = ?", studentId);
+            delete(connection, "DELETE FROM enrollments WHERE student_id = ?", studentId);
+            delete(connection, "DELETE FROM students WHERE student_id = ?", studentId);
+            return null;
+        });
+        if (!deleted) {
+            return false;
+        }
+        fireGradesDeleted(owned);
+        return super.deleteStudent(studentId);
+    }
+
+    @Override
+    public boolean saveCourse(Course course) {
+        return course != null
+                && write("saving course", connection -> putCourse(connection, course))
+                && super.saveCourse(course);
+    }
+
+    @Override
+    public boolean updateCourse(Course course) {
+        return course != null && findCourseByCode(course.getCourseCode()) != null
+                && write("updating course", connection -> putCourse(connection, course))
+                && super.updateCourse(course);
+    }
+
+    @Override
+    public boolean deleteCourse(String courseCode) {
+        if (findCourseByCode(courseCode) == null) {
+            return false;
+        }
+        List<Grade> owned = getGradesByCourse(courseCode);
+        boolean deleted = write("deleting course", connection -> {
+            delete(connection, "DELETE FROM grades WHERE course_code = ?", courseCode);
+            delete(connection, "DELETE FROM courses WHERE course_code = ?", courseCode);
+            return null;
+        });
+        if (!deleted) {
+            return false;
+        }
+        fireGradesDeleted(owned);
+        return super.deleteCourse(courseCode);
+    }
+
+    @Override
+    public boolean saveGrade(Grade grade) {
+        if (grade == null || grade.getStudent() == null || grade.getCourse() == null) {
+            return false;
+        }
+        try {
+            Grade previous = pool.inTransaction(connection -> {
+                Grade existing;
+                try (PreparedStatement find = connection.prepareStatement(GRADE_BY_KEY)) {
+                    existing = findGrade(find, GradeKey.of(grade));
+                }
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_GRADE)) {
+                    bindGrade(update, grade);
+                    if (update.executeUpdate() > 0) {
+                        return existing;
+                    }
+                }
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_GRADE)) {
+                    bindGrade(insert, grade);
+                    insert.executeUpdate();
+                }
+                return existing;
+            });
+            fireDataChanged(DataChangeEvent.Type.GRADE_SAVED, grade, previous);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving grade: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction: the rows are offered as a batch
+     * of updates, and those that matched no row as a batch of inserts. If a
+     * key occurs more than once, its last grade is saved.
+     */
+    @Override
+    public boolean saveGrades(Collection<Grade> grades) {
+        Map<GradeKey, Grade> latest = new LinkedHashMap<>();
+        for (Grade grade : grades) {
+            if (grade != null && grade.getStudent() != null && grade.getCourse() != null) {
+                GradeKey key = GradeKey.of(grade);
+                latest.remove(key);
+                latest.put(key, grade);
+            }
+        }
+        List<Grade> batch = new ArrayList<>(latest.values());
+        try {
+            List<Grade> replaced = pool.inTransaction(connection -> {
+                List<Grade> previous = new ArrayList<>(batch.size());
+                try (PreparedStatement find = connection.prepareStatement(GRADE_BY_KEY);
+                     PreparedStatement update = connection.prepareStatement(UPDATE_GRADE);
+                     PreparedStatement insert = connection.prepareStatement(INSERT_GRADE)) {
+                    for (int start = 0; start < batch.size(); start += BATCH_SIZE) {
+                        List<Grade> chunk = batch.subList(start, Math.min(start + BATCH_SIZE, batch.size()));
+                        for (Grade grade : chunk) {
+                            previous.add(findGrade(find, GradeKey.of(grade)));
+                            bindGrade(update, grade);
+                            update.addBatch();
+                        }
+                        int[] updated = update.executeBatch();
+                        boolean inserts = false;
+                        for (int i = 0; i < chunk.size(); i++) {
+                            if (updated[i] == 0) {
+                                bindGrade(insert, chunk.get(i));
+                                insert.addBatch();
+                                inserts = true;
+                            }
+                        }
+                        if (inserts) {
+                            insert.executeBatch();
+                        }
+                    }
+                }
+                return previous;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                fireDataChanged(DataChangeEvent.Type.GRADE_SAVED, batch.get(i), replaced.get(i));
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving grades: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<Grade> loadAllGrades() {
+        return queryGrades("");
+    }
+
+    @Override
+    public List<Grade> getGradesByStudent(String studentId) {
+        return queryGrades(" WHERE student_id = ?", studentId);
+    }
+
+    @Override
+    public List<Grade> getGradesByCourse(String courseCode) {
+        return queryGrades(" WHERE course_code = ?", courseCode);
+    }
+
+    /**
+     * A null semester is matched by "" and the other way round, as in the
+     * in-memory index
+     */
+    @Override
+    public List<Grade> getGradesBySemester(String semester) {
+        String key = Objects.toString(semester, "");
+        return key.isEmpty()
+                ? queryGrades(" WHERE semester IS NULL OR semester = ''")
+                : queryGrades(" WHERE semester = ?", key);
+    }
+
+    @Override
+    public boolean deleteGrade(Student student, Course course) {
+        GradeKey key = new GradeKey(student.getStudentId(), course.getCourseCode());
+        try {
+            Grade removed = pool.inTransaction(connection -> {
+                Grade existing;
+                try (PreparedStatement find = connection.prepareStatement(GRADE_BY_KEY)) {
+                    existing = findGrade(find, key);
+                }
+                if (existing != null) {
+                    delete(connection, "DELETE FROM grades WHERE student_id = ? AND course_code = ?",
+                            key.getStudentId(), key.getCourseCode());
+                }
+                return existing;
+            });
+            if (removed == null) {
+                return false;
+            }
+            fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, removed, null);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error deleting grade: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Re-reads the students and courses; grades are always read from the
+     * database
+     */
+    @Override
+    public boolean loadAllData() {
+        try {
+            pool.withConnection(connection -> {
+                replaceCourses(readCourses(connection));
+                replaceStudents(readStudents(connection));
+                long last = 0;
+                for (String table : new String[] {"courses", "students", "grades"}) {
+                    try (Statement statement = connection.createStatement();
+                         ResultSet rows = statement.executeQuery("SELECT MAX(seq) FROM " + table)) {
+                        if (rows.next()) {
+                            last = Math.max(last, rows.getLong(1));
+                        }
+                    }
+                }
+                nextSeq.set(last);
+                return null;
+            });
+            fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error loading data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean clearAllData() {
+        boolean cleared = write("clearing data", connection -> {
+            deleteAll(connection);
+            return null;
+        });
+        return cleared && super.clearAllData();
+    }
+
+    /**
+     * Replaces the contents of the database with the records of another
+     * DataManager, in one transaction of batched inserts. Grades whose
+     * student or course is missing are skipped.
+     */
+    public boolean importFrom(DataManager source) {
+        List<Course> courses = source.loadAllCourses();
+        List<Student> students = source.loadAllStudents();
+        List<Grade> grades = new ArrayList<>();
+        for (Grade grade : source.loadAllGrades()) {
+            if (grade.getStudent() != null && grade.getCourse() != null) {
+                grades.add(grade);
+            }
+        }
+        nextSeq.set(0);
+        boolean imported = write("importing data", connection -> {
+            deleteAll(connection);
+            insertAll(connection, INSERT_COURSE, courses, (insert, course) -> {
+                bindCourse(insert, course);
+                insert.setLong(6, nextSeq.incrementAndGet());
+            });
+            insertAll(connection, INSERT_STUDENT, students, (insert, student) -> {
+                bindStudent(insert, student);
+                insert.setLong(8, nextSeq.incrementAndGet());
+            });
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_ENROLLMENT)) {
+                int pending = 0;
+                for (Student student : students) {
+                    pending += addEnrollments(insert, student);
+                    if (pending >= BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                insert.executeBatch();
+            }
+            insertAll(connection, INSERT_GRADE, grades, this::bindGrade);
+            return null;
+        });
+        return imported && loadAllData();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private boolean write(String action, ConnectionPool.Work<?> work) {
+        try {
+            pool.inTransaction(work);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error " + action + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void fireGradesDeleted(List<Grade> owned) {
+        for (Grade grade : owned) {
+            fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, grade, null);
+        }
+    }
+
+    // ROW WRITES
+
+    private Void putStudent(Connection connection, Student student) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_STUDENT)) {
+            bindStudent(update, student);
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_STUDENT)) {
+                    bindStudent(insert, student);
+                    insert.setLong(8, nextSeq.incrementAndGet());
+                    insert.executeUpdate();
+                }
+            }
+        }
+        delete(connection, "DELETE FROM enrollments WHERE student_id = ?", student.getStudentId());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_ENROLLMENT)) {
+            if (addEnrollments(insert, student) > 0) {
+                insert.executeBatch();
+            }
+        }
+        return null;
+    }
+
+    private Void putCourse(Connection connection, Course course) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_COURSE)) {
+            bindCourse(update, course);
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_COURSE)) {
+                    bindCourse(insert, course);
+                    insert.setLong(6, nextSeq.incrementAndGet());
+                    insert.executeUpdate();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds the student's fields and key; an insert also needs the
+     * sequence number
+     */
+    private static void bindStudent(PreparedStatement statement, Student student) throws SQLException {
+        statement.setString(1, student.getId());
+        statement.setString(2, student.getName());
+        statement.setString(3, student.getEmail());
+        statement.setString(4, student.getPhone());
+        statement.setString(5, student.getDepartment());
+        statement.setInt(6, student.getYearOfStudy());
+        statement.setString(7, student.getStudentId());
+    }
+
+    private static void bindCourse(PreparedStatement statement, Course course) throws SQLException {
+        statement.setString(1, course.getCourseName());
+        statement.setInt(2, course.getCredits());
+        statement.setString(3, course.getInstructor());
+        statement.setString(4, course.getDescription());
+        statement.setString(5, course.getCourseCode());
+    }
+
+    private void bindGrade(PreparedStatement statement, Grade grade) throws SQLException {
+        statement.setDouble(1, grade.getScore());
+        statement.setString(2, grade.getSemester());
+        statement.setLong(3, nextSeq.incrementAndGet());
+        statement.setString(4, grade.getStudent().getStudentId());
+        statement.setString(5, grade.getCourse().getCourseCode());
+    }
+
+    /**
+     * @return number of enrollment rows added to the batch
+     */
+    private static int addEnrollments(PreparedStatement insert, Student student) throws SQLException {
+        int position = 0;
+        for (Course course : student.getEnrolledCourses()) {
+            insert.setString(1, student.getStudentId());
+            insert.setString(2, course.getCourseCode());
+            insert.setInt(3, position++);
+            insert.addBatch();
+        }
+        return position;
+    }
+
+    private static <T> void insertAll(Connection connection, String sql, Collection<T> rows,
+                                      Binder<T> binder) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (T row : rows) {
+                binder.bind(insert, row);
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static void delete(Connection connection, String sql, String... keys) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < keys.length; i++) {
+                statement.setString(i + 1, keys[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void deleteAll(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM grades");
+            statement.executeUpdate("DELETE FROM enrollments");
+            statement.executeUpdate("DELETE FROM students");
+            statement.executeUpdate("DELETE FROM courses");
+        }
+    }
+
+    // ROW READS
+
+    private List<Grade> queryGrades(String where, String... keys) {
+        try {
+            return pool.withConnection(connection -> {
+                try (PreparedStatement query = connection.prepareStatement(SELECT_GRADES + where + " ORDER BY seq")) {
+                    for (int i = 0; i < keys.length; i++) {
+                        query.setString(i + 1, keys[i]);
+                    }
+                    return readGrades(query);
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error loading grades: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private Grade findGrade(PreparedStatement find, GradeKey key) throws SQLException {
+        find.setString(1, key.getStudentId());
+        find.setString(2, key.getCourseCode());
+        List<Grade> found = readGrades(find);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Grades whose student or course is not known are dropped, as when
+     * reading the record files
+     */
+    private List<Grade> readGrades(PreparedStatement query) throws SQLException {
+        List<Grade> grades = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                Student student = findStudentById(rows.getString(1));
+                Course course = findCourseByCode(rows.getString(2));
+                if (student != null && course != null) {
+                    grades.add(new Grade(student, course, rows.getDouble(3), rows.getString(4)));
+                }
+            }
+        }
+        return grades;
+    }
+
+    private static List<Course> readCourses(Connection connection) throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT course_code, course_name, credits, instructor,"
+                     + " description FROM courses ORDER BY seq")) {
+            while (rows.next()) {
+                courses.add(new Course(rows.getString(1), rows.getString(2), rows.getInt(3),
+                        rows.getString(4), rows.getString(5)));
+            }
+        }
+        return courses;
+    }
+
+    /**
+     * Courses must already be loaded, for the enrollments
+     */
+    private List<Student> readStudents(Connection connection) throws SQLException {
+        Map<String, List<String>> enrolled = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT student_id, course_code FROM enrollments"
+                     + " ORDER BY student_id, seq")) {
+            while (rows.next()) {
+                enrolled.computeIfAbsent(rows.getString(1), id -> new ArrayList<>()).add(rows.getString(2));
+            }
+        }
+        List<Student> students = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT person_id, student_name, email, phone, student_id,"
+                     + " department, year_of_study FROM students ORDER BY seq")) {
+            while (rows.next()) {
+                Student student = new Student(rows.getString(1), rows.getString(2), rows.getString(3),
+                        rows.getString(4), rows.getString(5), rows.getString(6), rows.getInt(7));
+                for (String code : enrolled.getOrDefault(student.getStudentId(), new ArrayList<>())) {
+                    Course course = findCourseByCode(code);
+                    if (course != null) {
+                        student.enrollInCourse(course);
+                    }
+                }
+                students.add(student);
+            }
+        }
+        return students;
+    }
+}
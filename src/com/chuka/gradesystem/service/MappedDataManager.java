@@ -0,0 +1,195 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DataManager for large multi-year archives: students and courses are held
+ * in the hash indexes and saved like FileDataManager does, while grades
+ * live in a {@link MappedGradeStore} and are only materialized when queried.
+ *
+ * Because grades are not loaded up front, Student.getGrades() is not
+ * populated; use getGradesByStudent to obtain a student's grades.
+ * On first start an existing grades.dat is imported into the store.
+ */
+public class MappedDataManager extends IndexedDataManager implements Closeable {
+    public static final String STORAGE_PROPERTY = "gradesystem.storage";
+    public static final String MAPPED_STORAGE = "mapped";
+
+    private static final String GRADE_STORE_FILE = DataFiles.DATA_DIR + "grades.map";
+
+    private final MappedGradeStore gradeStore;
+
+    public MappedDataManager() throws IOException {
+        DataFiles.ensureDataDir();
+        gradeStore = new MappedGradeStore(GRADE_STORE_FILE);
+        loadAllData();
+    }
+
+    /**
+     * Opens the mapped store if the gradesystem.storage property is "mapped"
+     * @return null if another storage is configured
+     */
+    public static MappedDataManager openConfigured() throws IOException {
+        if (!MAPPED_STORAGE.equals(System.getProperty(STORAGE_PROPERTY))) {
+            return null;
+        }
+        return new MappedDataManager();
+    }
+
+    @Override
+    public boolean deleteStudent(String studentId) {
+        if (findStudentById(studentId) == null) {
+            return false;
+        }
+        List<Grade> owned = getGradesByStudent(studentId);
+        gradeStore.deleteByStudent(studentId);
+        fireGradesDeleted(owned);
+        return super.deleteStudent(studentId);
+    }
+
+    @Override
+    public boolean deleteCourse(String courseCode) {
+        if (findCourseByCode(courseCode) == null) {
+            return false;
+        }
+        List<Grade> owned = getGradesByCourse(courseCode);
+        gradeStore.deleteByCourse(courseCode);
+        fireGradesDeleted(owned);
+        return super.deleteCourse(courseCode);
+    }
+
+    @Override
+    public boolean saveGrade(Grade grade) {
+        if (grade == null || grade.getStudent() == null || grade.getCourse() == null) {
+            return false;
+        }
+        try {
+            Grade previous = gradeStore.find(GradeKey.of(grade), this);
+            gradeStore.put(grade);
+            fireDataChanged(DataChangeEvent.Type.GRADE_SAVED, grade, previous);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error saving grade: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean saveGrades(Collection<Grade> grades) {
+        boolean success = true;
+        for (Grade grade : grades) {
+            success &= saveGrade(grade);
+        }
+        gradeStore.force();
+        return success;
+    }
+
+    @Override
+    public List<Grade> loadAllGrades() {
+        return gradeStore.findAll(this);
+    }
+
+    @Override
+    public List<Grade> getGradesByStudent(String studentId) {
+        return gradeStore.findByStudent(studentId, this);
+    }
+
+    @Override
+    public List<Grade> getGradesByCourse(String courseCode) {
+        return gradeStore.findByCourse(courseCode, this);
+    }
+
+    @Override
+    public List<Grade> getGradesBySemester(String semester) {
+        return gradeStore.findBySemester(semester, this);
+    }
+
+    @Override
+    public boolean deleteGrade(Student student, Course course) {
+        GradeKey key = new GradeKey(student.getStudentId(), course.getCourseCode());
+        Grade removed = gradeStore.find(key, this);
+        if (removed == null || !gradeStore.delete(key)) {
+            return false;
+        }
+        fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, removed, null);
+        return true;
+    }
+
+    @Override
+    public boolean loadAllData() {
+        try {
+            File courses = new File(DataFiles.COURSES_FILE);
+            if (courses.exists()) {
+                replaceCourses(DataFiles.readCourses(courses));
+            }
+            File students = new File(DataFiles.STUDENTS_FILE);
+            if (students.exists()) {
+                replaceStudents(DataFiles.readStudents(students, this));
+            }
+            File grades = new File(DataFiles.GRADES_FILE);
+            if (gradeStore.isEmpty() && grades.exists()) {
+                for (Grade grade : DataFiles.readGrades(grades, this)) {
+                    if (grade.getStudent() != null && grade.getCourse() != null) {
+                        gradeStore.put(grade);
+                    }
+                }
+                gradeStore.force();
+            }
+            fireDataChanged(DataChangeEvent.Type.DATA_RELOADED, null, null);
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean clearAllData() {
+        gradeStore.clear();
+        return super.clearAllData();
+    }
+
+    @Override
+    public void close() throws IOException {
+        gradeStore.close();
+    }
+
+    // The store deletes by key, so records that no longer materialize (their
+    // course or student is gone) are deleted too; only the others have events
+    private void fireGradesDeleted(List<Grade> deleted) {
+        for (Grade grade : deleted) {
+            fireDataChanged(DataChangeEvent.Type.GRADE_DELETED, grade, null);
+        }
+    }
+
+    @Override
+    protected boolean persistStudents() {
+        try {
+            DataFiles.writeStudents(DataFiles.STUDENTS_FILE, loadAllStudents());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving students: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean persistCourses() {
+        try {
+            DataFiles.writeCourses(DataFiles.COURSES_FILE, loadAllCourses());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving courses: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean persistGrades() {
+        gradeStore.force();
+        return true;
+    }
+}
@@ -0,0 +1,353 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Grade storage in a memory-mapped file of fixed-size records.
+ *
+ * Only the record keys and semesters are read when the store is opened,
+ * to build the position indexes; Grade objects are materialized on access, so the heap
+ * holds just the keys of the archive. Deletes mark the record as a
+ * tombstone; {@link #compact()} reclaims the space.
+ *
+ * Record layout (RECORD_SIZE bytes):
+ * <pre>
+ *   byte    status (LIVE / DELETED)
+ *   double  score
+ *   field   studentId  (length byte + up to 19 UTF-8 bytes)
+ *   field   courseCode (length byte + up to 15 UTF-8 bytes)
+ *   field   semester   (length byte + up to 34 UTF-8 bytes, 0xFF = null)
+ * </pre>
+ * A single mapping is limited to 2 GB, i.e. about 26 million records.
+ */
+public class MappedGradeStore implements Closeable {
+    private static final int MAGIC = 0x47524d50;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+
+    static final int RECORD_SIZE = 80;
+    private static final int STATUS_OFFSET = 0;
+    private static final int SCORE_OFFSET = 1;
+    private static final int STUDENT_OFFSET = 9;
+    private static final int STUDENT_WIDTH = 20;
+    private static final int COURSE_OFFSET = 29;
+    private static final int COURSE_WIDTH = 16;
+    private static final int SEMESTER_OFFSET = 45;
+    private static final int SEMESTER_WIDTH = 35;
+
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final int NULL_LENGTH = 0xFF;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    private final Map<GradeKey, Integer> positions = new HashMap<>();
+    private final Map<String, List<Integer>> byStudent = new HashMap<>();
+    private final Map<String, List<Integer>> byCourse = new HashMap<>();
+    private final Map<String, List<Integer>> bySemester = new HashMap<>();
+
+    public MappedGradeStore(String path) throws IOException {
+        this.file = new File(path);
+        boolean existing = file.exists() && file.length() >= HEADER_SIZE;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (existing) {
+            capacity = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            map(capacity);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a grade store: " + file);
+            }
+            if (buffer.getShort(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported grade store version " + buffer.getShort(4));
+            }
+            count = buffer.getInt(COUNT_OFFSET);
+            indexRecords();
+        } else {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, FORMAT_VERSION);
+            setCount(0);
+        }
+    }
+
+    public boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public boolean contains(GradeKey key) {
+        return positions.containsKey(key);
+    }
+
+    public Grade find(GradeKey key, DataManager lookup) {
+        Integer position = positions.get(key);
+        return position == null ? null : materialize(position, lookup);
+    }
+
+    public List<Grade> findByStudent(String studentId, DataManager lookup) {
+        return materialize(byStudent.getOrDefault(studentId, Collections.emptyList()), lookup);
+    }
+
+    public List<Grade> findByCourse(String courseCode, DataManager lookup) {
+        return materialize(byCourse.getOrDefault(courseCode, Collections.emptyList()), lookup);
+    }
+
+    public List<Grade> findBySemester(String semester, DataManager lookup) {
+        return materialize(bySemester.getOrDefault(Objects.toString(semester, ""),
+                Collections.emptyList()), lookup);
+    }
+
+    /**
+     * Materializes every live grade; meant for exports and full reports only.
+     */
+    public List<Grade> findAll(DataManager lookup) {
+        List<Grade> grades = new ArrayList<>(positions.size());
+        for (int position = 0; position < count; position++) {
+            if (buffer.get(offset(position) + STATUS_OFFSET) == LIVE) {
+                Grade grade = materialize(position, lookup);
+                if (grade != null) {
+                    grades.add(grade);
+                }
+            }
+        }
+        return grades;
+    }
+
+    /**
+     * Inserts the grade or overwrites the record with the same key in place.
+     */
+    public void put(Grade grade) throws IOException {
+        GradeKey key = GradeKey.of(grade);
+        // Encode first so an oversized field leaves the file untouched
+        byte[] studentId = encode(key.getStudentId(), STUDENT_WIDTH);
+        byte[] courseCode = encode(key.getCourseCode(), COURSE_WIDTH);
+        byte[] semester = encode(grade.getSemester(), SEMESTER_WIDTH);
+        Integer existing = positions.get(key);
+        int position;
+        if (existing != null) {
+            position = existing;
+            String oldSemester = semesterAt(position);
+            if (!Objects.equals(oldSemester, Objects.toString(grade.getSemester(), ""))) {
+                bySemester.get(oldSemester).remove(existing);
+                bySemester.computeIfAbsent(Objects.toString(grade.getSemester(), ""),
+                        k -> new ArrayList<>()).add(position);
+            }
+        } else {
+            if (count == capacity) {
+                map(Math.max(INITIAL_CAPACITY, capacity * 2));
+            }
+            position = count;
+        }
+        int base = offset(position);
+        buffer.putDouble(base + SCORE_OFFSET, grade.getScore());
+        putField(base + STUDENT_OFFSET, studentId);
+        putField(base + COURSE_OFFSET, courseCode);
+        putField(base + SEMESTER_OFFSET, semester);
+        buffer.put(base + STATUS_OFFSET, LIVE);
+        if (existing == null) {
+            setCount(count + 1);
+            index(key, position);
+        }
+    }
+
+    public boolean delete(GradeKey key) {
+        Integer position = positions.remove(key);
+        if (position == null) {
+            return false;
+        }
+        buffer.put(offset(position) + STATUS_OFFSET, DELETED);
+        byStudent.get(key.getStudentId()).remove(position);
+        byCourse.get(key.getCourseCode()).remove(position);
+        bySemester.get(semesterAt(position)).remove(position);
+        return true;
+    }
+
+    public int deleteByStudent(String studentId) {
+        List<Integer> owned = byStudent.remove(studentId);
+        if (owned == null) {
+            return 0;
+        }
+        for (int position : owned) {
+            GradeKey key = keyAt(position);
+            positions.remove(key);
+            byCourse.get(key.getCourseCode()).remove(Integer.valueOf(position));
+            bySemester.get(semesterAt(position)).remove(Integer.valueOf(position));
+            buffer.put(offset(position) + STATUS_OFFSET, DELETED);
+        }
+        return owned.size();
+    }
+
+    public int deleteByCourse(String courseCode) {
+        List<Integer> owned = byCourse.remove(courseCode);
+        if (owned == null) {
+            return 0;
+        }
+        for (int position : owned) {
+            GradeKey key = keyAt(position);
+            positions.remove(key);
+            byStudent.get(key.getStudentId()).remove(Integer.valueOf(position));
+            bySemester.get(semesterAt(position)).remove(Integer.valueOf(position));
+            buffer.put(offset(position) + STATUS_OFFSET, DELETED);
+        }
+        return owned.size();
+    }
+
+    public void clear() {
+        positions.clear();
+        byStudent.clear();
+        byCourse.clear();
+        bySemester.clear();
+        setCount(0);
+    }
+
+    /**
+     * Slides live records over tombstones and rebuilds the indexes.
+     */
+    public void compact() {
+        int target = 0;
+        byte[] record = new byte[RECORD_SIZE];
+        for (int position = 0; position < count; position++) {
+            if (buffer.get(offset(position) + STATUS_OFFSET) != LIVE) {
+                continue;
+            }
+            if (target != position) {
+                buffer.get(offset(position), record);
+                buffer.put(offset(target), record);
+            }
+            target++;
+        }
+        setCount(target);
+        positions.clear();
+        byStudent.clear();
+        byCourse.clear();
+        bySemester.clear();
+        indexRecords();
+    }
+
+    /**
+     * Flushes dirty pages to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        capacity = newCapacity;
+    }
+
+    private void setCount(int newCount) {
+        count = newCount;
+        buffer.putInt(COUNT_OFFSET, count);
+    }
+
+    private static int offset(int position) {
+        return HEADER_SIZE + position * RECORD_SIZE;
+    }
+
+    private void indexRecords() {
+        for (int position = 0; position < count; position++) {
+            if (buffer.get(offset(position) + STATUS_OFFSET) == LIVE) {
+                index(keyAt(position), position);
+            }
+        }
+    }
+
+    private void index(GradeKey key, int position) {
+        positions.put(key, position);
+        byStudent.computeIfAbsent(key.getStudentId(), k -> new ArrayList<>()).add(position);
+        byCourse.computeIfAbsent(key.getCourseCode(), k -> new ArrayList<>()).add(position);
+        bySemester.computeIfAbsent(semesterAt(position), k -> new ArrayList<>()).add(position);
+    }
+
+    /**
+     * Semester of the record, "" for none, as used by the semester index.
+     */
+    private String semesterAt(int position) {
+        return Objects.toString(getField(offset(position) + SEMESTER_OFFSET), "");
+    }
+
+    private GradeKey keyAt(int position) {
+        int base = offset(position);
+        return new GradeKey(getField(base + STUDENT_OFFSET), getField(base + COURSE_OFFSET));
+    }
+
+    private List<Grade> materialize(List<Integer> recordPositions, DataManager lookup) {
+        List<Grade> grades = new ArrayList<>(recordPositions.size());
+        for (int position : recordPositions) {
+            Grade grade = materialize(position, lookup);
+            if (grade != null) {
+                grades.add(grade);
+            }
+        }
+        return grades;
+    }
+
+    private Grade materialize(int position, DataManager lookup) {
+        int base = offset(position);
+        Student student = lookup.findStudentById(getField(base + STUDENT_OFFSET));
+        Course course = lookup.findCourseByCode(getField(base + COURSE_OFFSET));
+        if (student == null || course == null) {
+            return null;
+        }
+        return new Grade(student, course, buffer.getDouble(base + SCORE_OFFSET),
+                getField(base + SEMESTER_OFFSET));
+    }
+
+    private static byte[] encode(String value, int width) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= width) {
+            throw new IllegalArgumentException("Value too long for grade store field: " + value);
+        }
+        return bytes;
+    }
+
+    private void putField(int at, byte[] bytes) {
+        if (bytes == null) {
+            buffer.put(at, (byte) NULL_LENGTH);
+            return;
+        }
+        buffer.put(at, (byte) bytes.length);
+        buffer.put(at + 1, bytes);
+    }
+
+    private String getField(int at) {
+        int length = buffer.get(at) & 0xFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,187 @@
+package com.chuka.gradesystem.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sorted set that also answers how many elements come before a point in
+ * the sort order, and lists its first elements without visiting the rest.
+ *
+ * A treap whose nodes carry the size of their subtree; random priorities
+ * keep it balanced, so every operation takes O(log n) expected time.
+ * Not synchronized.
+ */
+final class OrderStatisticTree<T> {
+
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    private final Random random = new Random();
+    private Node<T> root;
+
+    OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * @return false if an equal element was already present
+     */
+    boolean add(T value) {
+        int before = size();
+        root = insert(root, value);
+        return size() != before;
+    }
+
+    /**
+     * @return false if no equal element was present
+     */
+    boolean remove(T value) {
+        int before = size();
+        root = delete(root, value);
+        return size() != before;
+    }
+
+    /**
+     * Number of elements before a point in the sort order
+     * @param side negative for elements before the point, otherwise zero or
+     *             positive; must agree with the comparator
+     */
+    int countBefore(ToIntFunction<? super T> side) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (side.applyAsInt(node.value) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the first elements in sort order, at most limit of them
+     */
+    List<T> first(int limit) {
+        List<T> result = new ArrayList<>(Math.min(Math.max(limit, 0), size()));
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        while (result.size() < limit && (node != null || !path.isEmpty())) {
+            if (node != null) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = path.pop();
+                result.add(node.value);
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    private Node<T> insert(Node<T> node, T value) {
+        if (node == null) {
+            return new Node<>(value, random.nextInt());
+        }
+        int order = comparator.compare(value, node.value);
+        if (order < 0) {
+            node.left = insert(node.left, value);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else if (order > 0) {
+            node.right = insert(node.right, value);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int order = comparator.compare(value, node.value);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            node.left = delete(node.left, value);
+        } else {
+            node.right = delete(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    // Joins two treaps whose elements are all smaller in the first
+    private Node<T> merge(Node<T> smaller, Node<T> larger) {
+        if (smaller == null) {
+            return larger;
+        }
+        if (larger == null) {
+            return smaller;
+        }
+        if (smaller.priority > larger.priority) {
+            smaller.right = merge(smaller.right, larger);
+            update(smaller);
+            return smaller;
+        }
+        larger.left = merge(smaller, larger.left);
+        update(larger);
+        return larger;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        update(node);
+        left.right = node;
+        update(left);
+        return left;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        update(node);
+        right.left = node;
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,117 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads files produced by {@link RecordWriter}.
+ *
+ * Key references (a student's enrolled courses, a grade's student and
+ * course) are resolved through the given DataManager, so courses must be
+ * loaded before students and both before grades. Grades whose student or
+ * course no longer exists are dropped.
+ */
+public class RecordReader implements Closeable {
+    private final DataInputStream in;
+    private String[] dictionary;
+
+    public RecordReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+    }
+
+    /**
+     * Peeks at the first bytes of a file to tell the binary record format
+     * apart from a legacy ObjectOutputStream file.
+     */
+    public static boolean isRecordFile(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == RecordWriter.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    public List<Student> readStudents(DataManager lookup) throws IOException {
+        int count = readHeader(RecordWriter.KIND_STUDENTS);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = string();
+            String name = string();
+            String email = string();
+            String phone = string();
+            String studentId = string();
+            String department = string();
+            int year = in.readInt();
+            Student student = new Student(id, name, email, phone, studentId, department, year);
+            int enrolled = in.readInt();
+            for (int j = 0; j < enrolled; j++) {
+                Course course = lookup.findCourseByCode(string());
+                if (course != null) {
+                    student.enrollInCourse(course);
+                }
+            }
+            students.add(student);
+        }
+        return students;
+    }
+
+    public List<Course> readCourses() throws IOException {
+        int count = readHeader(RecordWriter.KIND_COURSES);
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String code = string();
+            String name = string();
+            int credits = in.readInt();
+            String instructor = string();
+            String description = string();
+            courses.add(new Course(code, name, credits, instructor, description));
+        }
+        return courses;
+    }
+
+    public List<Grade> readGrades(DataManager lookup) throws IOException {
+        int count = readHeader(RecordWriter.KIND_GRADES);
+        List<Grade> grades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student student = lookup.findStudentById(string());
+            Course course = lookup.findCourseByCode(string());
+            double score = in.readDouble();
+            String semester = string();
+            if (student != null && course != null) {
+                grades.add(new Grade(student, course, score, semester));
+            }
+        }
+        return grades;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int readHeader(byte expectedKind) throws IOException {
+        if (in.readInt() != RecordWriter.MAGIC) {
+            throw new IOException("Not a grade system record file");
+        }
+        short version = in.readShort();
+        if (version < 1 || version > RecordWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported record format version " + version);
+        }
+        byte kind = in.readByte();
+        if (kind != expectedKind) {
+            throw new IOException("Unexpected record kind " + kind + ", expected " + expectedKind);
+        }
+        dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        return in.readInt();
+    }
+
+    private String string() throws IOException {
+        int ref = in.readInt();
+        return ref < 0 ? null : dictionary[ref];
+    }
+}
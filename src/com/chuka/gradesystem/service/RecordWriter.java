@@ -0,0 +1,143 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes students, courses or grades in the compact binary record format
+ * read back by {@link RecordReader}.
+ *
+ * Layout of one file:
+ * <pre>
+ *   int    MAGIC ("GRDS")
+ *   short  FORMAT_VERSION
+ *   byte   record kind (KIND_STUDENTS / KIND_COURSES / KIND_GRADES)
+ *   int    dictionary size, then each distinct string (writeUTF)
+ *   int    record count, then fixed-width records
+ *   int    CRC-32 of every byte before it (since version 2)
+ * </pre>
+ * Every string field is stored as an int index into the dictionary
+ * (-1 for null), so repeated departments, instructors and semesters cost
+ * four bytes each. Grades reference their student and course by key only;
+ * letter grade and grade point are derived from the score on read.
+ */
+public class RecordWriter implements Closeable {
+    static final int MAGIC = 0x47524453;
+    static final short FORMAT_VERSION = 2;
+    // Bytes of the CRC trailer at the end of the file
+    static final int TRAILER_SIZE = 4;
+
+    static final byte KIND_STUDENTS = 1;
+    static final byte KIND_COURSES = 2;
+    static final byte KIND_GRADES = 3;
+
+    private final DataOutputStream out;
+    private final CRC32 checksum = new CRC32();
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+    public RecordWriter(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(out, checksum)));
+    }
+
+    public void writeStudents(Collection<Student> students) throws IOException {
+        for (Student s : students) {
+            intern(s.getId());
+            intern(s.getName());
+            intern(s.getEmail());
+            intern(s.getPhone());
+            intern(s.getStudentId());
+            intern(s.getDepartment());
+            for (Course course : s.getEnrolledCourses()) {
+                intern(course.getCourseCode());
+            }
+        }
+        writeHeader(KIND_STUDENTS);
+        out.writeInt(students.size());
+        for (Student s : students) {
+            out.writeInt(ref(s.getId()));
+            out.writeInt(ref(s.getName()));
+            out.writeInt(ref(s.getEmail()));
+            out.writeInt(ref(s.getPhone()));
+            out.writeInt(ref(s.getStudentId()));
+            out.writeInt(ref(s.getDepartment()));
+            out.writeInt(s.getYearOfStudy());
+            out.writeInt(s.getEnrolledCourses().size());
+            for (Course course : s.getEnrolledCourses()) {
+                out.writeInt(ref(course.getCourseCode()));
+            }
+        }
+        writeTrailer();
+    }
+
+    public void writeCourses(Collection<Course> courses) throws IOException {
+        for (Course c : courses) {
+            intern(c.getCourseCode());
+            intern(c.getCourseName());
+            intern(c.getInstructor());
+            intern(c.getDescription());
+        }
+        writeHeader(KIND_COURSES);
+        out.writeInt(courses.size());
+        for (Course c : courses) {
+            out.writeInt(ref(c.getCourseCode()));
+            out.writeInt(ref(c.getCourseName()));
+            out.writeInt(c.getCredits());
+            out.writeInt(ref(c.getInstructor()));
+            out.writeInt(ref(c.getDescription()));
+        }
+        writeTrailer();
+    }
+
+    public void writeGrades(Collection<Grade> grades) throws IOException {
+        for (Grade g : grades) {
+            intern(g.getStudent().getStudentId());
+            intern(g.getCourse().getCourseCode());
+            intern(g.getSemester());
+        }
+        writeHeader(KIND_GRADES);
+        out.writeInt(grades.size());
+        for (Grade g : grades) {
+            out.writeInt(ref(g.getStudent().getStudentId()));
+            out.writeInt(ref(g.getCourse().getCourseCode()));
+            out.writeDouble(g.getScore());
+            out.writeInt(ref(g.getSemester()));
+        }
+        writeTrailer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void intern(String value) {
+        if (value != null && !dictionary.containsKey(value)) {
+            dictionary.put(value, dictionary.size());
+        }
+    }
+
+    private int ref(String value) {
+        return value == null ? -1 : dictionary.get(value);
+    }
+
+    private void writeTrailer() throws IOException {
+        out.flush();
+        out.writeInt((int) checksum.getValue());
+        out.flush();
+    }
+
+    private void writeHeader(byte kind) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeByte(kind);
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.chuka.gradesystem.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive substring search over a few text fields of each record,
+ * using an inverted index of character trigrams.
+ *
+ * Each record's fields are lower-cased once, when it is indexed. A query of
+ * three or more characters intersects the posting lists of its trigrams,
+ * smallest first, and only the surviving candidates are checked with
+ * String.contains; shorter queries scan the pre-lowered texts.
+ *
+ * Records keep their document number when updated, so results stay in
+ * indexing order. Postings are never shrunk: a stale posting only costs a
+ * failed check. Deleted documents are tombstoned and the index is rebuilt
+ * once they outnumber the live ones. All methods are synchronized; queries
+ * may run on any thread.
+ */
+public class SearchIndex<T> {
+    private static final int[] EMPTY = new int[0];
+    // Separates fields so no match spans two of them
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Function<T, String> keyOf;
+    private final Function<T, String[]> fieldsOf;
+
+    private final List<T> records = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<String, Integer> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int deleted;
+
+    private static class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] >= doc) {
+                insert(doc);
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        // Out-of-order add, only when an updated record gains a trigram
+        private void insert(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            docs[pos] = doc;
+            size++;
+        }
+    }
+
+    /**
+     * @param keyOf primary key of a record
+     * @param fieldsOf the searchable fields of a record; null fields are skipped
+     */
+    public SearchIndex(Function<T, String> keyOf, Function<T, String[]> fieldsOf) {
+        this.keyOf = keyOf;
+        this.fieldsOf = fieldsOf;
+    }
+
+    public synchronized void rebuild(Collection<T> all) {
+        records.clear();
+        texts.clear();
+        documents.clear();
+        postings.clear();
+        deleted = 0;
+        for (T record : all) {
+            put(record);
+        }
+    }
+
+    /**
+     * Adds or re-indexes a record.
+     */
+    public synchronized void put(T record) {
+        String text = textOf(record);
+        Integer doc = documents.get(keyOf.apply(record));
+        if (doc == null) {
+            doc = records.size();
+            records.add(record);
+            texts.add(text);
+            documents.put(keyOf.apply(record), doc);
+        } else {
+            records.set(doc, record);
+            texts.set(doc, text);
+        }
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new Postings()).add(doc);
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Integer doc = documents.remove(key);
+        if (doc == null) {
+            return;
+        }
+        records.set(doc, null);
+        texts.set(doc, null);
+        deleted++;
+        if (deleted > documents.size() && deleted > 1000) {
+            List<T> live = new ArrayList<>(documents.size());
+            for (T record : records) {
+                if (record != null) {
+                    live.add(record);
+                }
+            }
+            rebuild(live);
+        }
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * @return records with a field containing the query, ignoring case, in
+     *         indexing order; all records for an empty query
+     */
+    public synchronized List<T> search(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        List<T> result = new ArrayList<>();
+        if (q.length() < 3) {
+            for (int doc = 0; doc < texts.size(); doc++) {
+                String text = texts.get(doc);
+                if (text != null && text.contains(q)) {
+                    result.add(records.get(doc));
+                }
+            }
+            return result;
+        }
+        for (int doc : candidates(q)) {
+            String text = texts.get(doc);
+            if (text != null && text.contains(q)) {
+                result.add(records.get(doc));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same test as search, for a single record that may not be indexed yet.
+     */
+    public boolean matches(T record, String query) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        return textOf(record).contains(q);
+    }
+
+    /**
+     * Documents holding every trigram of the query, in ascending order.
+     */
+    private int[] candidates(String q) {
+        int count = q.length() - 2;
+        Postings[] lists = new Postings[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = postings.get(trigram(q, i));
+            if (lists[i] == null) {
+                return EMPTY;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] current = Arrays.copyOf(lists[0].docs, lists[0].size);
+        int size = current.length;
+        for (int i = 1; i < count && size > 0; i++) {
+            size = intersect(current, size, lists[i]);
+        }
+        return Arrays.copyOf(current, size);
+    }
+
+    /**
+     * Keeps the first size entries of docs that also occur in other.
+     * @return the new size
+     */
+    private static int intersect(int[] docs, int size, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            int doc = docs[i];
+            while (j < other.size && other.docs[j] < doc) {
+                j++;
+            }
+            if (j < other.size && other.docs[j] == doc) {
+                docs[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private String textOf(T record) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fieldsOf.apply(record)) {
+            if (field != null) {
+                if (text.length() > 0) {
+                    text.append(FIELD_SEPARATOR);
+                }
+                text.append(field.toLowerCase());
+            }
+        }
+        return text.toString();
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+}
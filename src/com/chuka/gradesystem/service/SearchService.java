@@ -0,0 +1,96 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.util.List;
+
+/**
+ * Search over students (name, student ID, email) and courses (code, name,
+ * instructor), backed by one SearchIndex each.
+ *
+ * The indexes follow the DataManager through change events. After a reload
+ * only the record lists are captured on the notifying thread; the indexes
+ * are rebuilt by the next search, which normally runs off the EDT.
+ */
+public class SearchService implements DataChangeListener {
+    private final DataManager dataManager;
+    private final SearchIndex<Student> students = new SearchIndex<>(Student::getStudentId,
+            s -> new String[] { s.getName(), s.getStudentId(), s.getEmail() });
+    private final SearchIndex<Course> courses = new SearchIndex<>(Course::getCourseCode,
+            c -> new String[] { c.getCourseCode(), c.getCourseName(), c.getInstructor() });
+
+    // Snapshots waiting to be indexed; guarded by this
+    private List<Student> pendingStudents;
+    private List<Course> pendingCourses;
+
+    public SearchService(DataManager dataManager) {
+        this.dataManager = dataManager;
+        capture();
+        dataManager.addChangeListener(this);
+    }
+
+    public List<Student> searchStudents(String query) {
+        synchronized (this) {
+            // Under the lock so no change is applied before the rebuild
+            if (pendingStudents != null) {
+                students.rebuild(pendingStudents);
+                pendingStudents = null;
+            }
+        }
+        return students.search(query);
+    }
+
+    public List<Course> searchCourses(String query) {
+        synchronized (this) {
+            if (pendingCourses != null) {
+                courses.rebuild(pendingCourses);
+                pendingCourses = null;
+            }
+        }
+        return courses.search(query);
+    }
+
+    public boolean matches(Student student, String query) {
+        return students.matches(student, query);
+    }
+
+    public boolean matches(Course course, String query) {
+        return courses.matches(course, query);
+    }
+
+    @Override
+    public synchronized void dataChanged(DataChangeEvent event) {
+        switch (event.getType()) {
+            case STUDENT_SAVED:
+            case STUDENT_DELETED:
+                if (pendingStudents != null) {
+                    // The snapshot predates the change; take a fresh one instead
+                    pendingStudents = dataManager.loadAllStudents();
+                } else if (event.getType() == DataChangeEvent.Type.STUDENT_SAVED) {
+                    students.put((Student) event.getEntity());
+                } else {
+                    students.remove(((Student) event.getEntity()).getStudentId());
+                }
+                break;
+            case COURSE_SAVED:
+            case COURSE_DELETED:
+                if (pendingCourses != null) {
+                    pendingCourses = dataManager.loadAllCourses();
+                } else if (event.getType() == DataChangeEvent.Type.COURSE_SAVED) {
+                    courses.put((Course) event.getEntity());
+                } else {
+                    courses.remove(((Course) event.getEntity()).getCourseCode());
+                }
+                break;
+            case DATA_RELOADED:
+                capture();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private synchronized void capture() {
+        pendingStudents = dataManager.loadAllStudents();
+        pendingCourses = dataManager.loadAllCourses();
+    }
+}
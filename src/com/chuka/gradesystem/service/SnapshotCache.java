@@ -0,0 +1,49 @@
+package com.chuka.gradesystem.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-only copy of a collection, shared by every reader until the
+ * collection changes.
+ *
+ * The owner calls invalidate() after each change, which is O(1); the next
+ * get() copies the collection once and later calls return the same list.
+ * The lists handed out are unmodifiable and never change afterwards, so
+ * they can be iterated on any thread while writers proceed.
+ *
+ * Not synchronized: get() must not run concurrently with a change of the
+ * source, while peek() may.
+ */
+final class SnapshotCache<T> {
+    private final Supplier<Collection<T>> source;
+    private volatile List<T> snapshot;
+
+    SnapshotCache(Supplier<Collection<T>> source) {
+        this.source = source;
+    }
+
+    List<T> get() {
+        List<T> current = snapshot;
+        if (current == null) {
+            current = Collections.unmodifiableList(new ArrayList<>(source.get()));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return the current copy, or null if the collection changed since it
+     *         was last copied
+     */
+    List<T> peek() {
+        return snapshot;
+    }
+
+    void invalidate() {
+        snapshot = null;
+    }
+}
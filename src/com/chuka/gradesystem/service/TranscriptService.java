@@ -0,0 +1,164 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds student transcripts, one at a time for the Reports tab or for a
+ * whole cohort at once.
+ *
+ * A batch export works from a Batch: the students and their grades,
+ * grouped in a single pass on the thread that makes changes, so the
+ * export never reads records while they are written. It then renders and
+ * writes the transcripts in parallel on the common fork-join pool,
+ * reporting progress and checking for cancellation between students.
+ */
+public class TranscriptService {
+
+    public interface ProgressListener {
+        /** Called from worker threads after each transcript is written. */
+        void progress(int completed, int total);
+    }
+
+    /**
+     * Students and their grades, copied for an export
+     */
+    public static final class Batch {
+        private final List<Student> students;
+        private final Map<String, List<Grade>> gradesByStudent;
+
+        private Batch(List<Student> students, Map<String, List<Grade>> gradesByStudent) {
+            this.students = students;
+            this.gradesByStudent = gradesByStudent;
+        }
+    }
+
+    private final DataManager dataManager;
+    private final GradeService gradeService;
+
+    public TranscriptService(DataManager dataManager, GradeService gradeService) {
+        this.dataManager = dataManager;
+        this.gradeService = gradeService;
+    }
+
+    public String generateTranscript(Student student) {
+        return renderTranscript(student, dataManager.getGradesByStudent(student.getStudentId()));
+    }
+
+    public String renderTranscript(Student student, List<Grade> grades) {
+        // Header GPA from the given grades, not the student's live list
+        double cgpa = gradeService.calculateGPA(grades);
+        StringBuilder report = new StringBuilder();
+        report.append(student.getDetails(cgpa)).append("\n\n");
+        if (grades.isEmpty()) {
+            report.append("No grades recorded.\n");
+        } else {
+            report.append("=== COURSES AND GRADES ===\n");
+            report.append("Course Code\tCourse Name\t\tScore\tGrade\tPoints\tSemester\n");
+            report.append("------------------------------------------------------------------------\n");
+            for (Grade grade : grades) {
+                Course course = grade.getCourse();
+                report.append(String.format("%-12s\t%-20s\t%.1f\t%s\t%.1f\t%s\n",
+                    course.getCourseCode(),
+                    course.getCourseName(),
+                    grade.getScore(),
+                    grade.getLetterGrade(),
+                    grade.getGradePoint(),
+                    grade.getSemester()));
+            }
+            report.append("\n");
+        }
+        report.append(String.format("Cumulative GPA (CGPA): %.2f\n", cgpa));
+        report.append(String.format("Class Standing: %s\n", gradeService.getClassStanding(cgpa)));
+        report.append("\n").append(gradeService.getGradeStatistics(grades));
+        return report.toString();
+    }
+
+    /**
+     * Copies the students and groups their grades for exportAll. Call it on
+     * the thread that makes changes, e.g. the EDT, before starting the
+     * export elsewhere.
+     */
+    public Batch snapshot() {
+        List<Student> students = dataManager.loadAllStudents();
+        Map<String, List<Grade>> gradesByStudent = new HashMap<>();
+        for (Grade grade : dataManager.loadAllGrades()) {
+            gradesByStudent.computeIfAbsent(grade.getStudent().getStudentId(),
+                    k -> new ArrayList<>()).add(grade);
+        }
+        return new Batch(students, gradesByStudent);
+    }
+
+    /**
+     * Writes one transcript file per student of the batch into the
+     * directory. Student IDs that map to the same file name get a numbered
+     * suffix, so no transcript overwrites another.
+     * @param cancelled set to true from any thread to stop the export; students
+     *                  not yet started are skipped
+     * @return number of transcripts written
+     */
+    public int exportAll(Batch batch, File directory, ProgressListener listener, AtomicBoolean cancelled)
+            throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        List<Student> students = batch.students;
+        Map<String, List<Grade>> gradesByStudent = batch.gradesByStudent;
+        Map<Student, String> fileNames = fileNamesFor(students);
+        int total = students.size();
+        AtomicInteger completed = new AtomicInteger();
+        try {
+            students.parallelStream().forEach(student -> {
+                if (cancelled.get()) {
+                    return;
+                }
+                List<Grade> grades = gradesByStudent.getOrDefault(student.getStudentId(),
+                        Collections.emptyList());
+                File file = new File(directory, fileNames.get(student));
+                try (Writer writer = new OutputStreamWriter(
+                        new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                    writer.write(renderTranscript(student, grades));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                int done = completed.incrementAndGet();
+                if (listener != null) {
+                    listener.progress(done, total);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return completed.get();
+    }
+
+    /**
+     * File name per student, e.g. CS_01_transcript.txt for CS/01; a name
+     * already taken, ignoring case, gets a suffix as in CS_01_2_transcript.txt
+     */
+    private static Map<Student, String> fileNamesFor(List<Student> students) {
+        Map<Student, String> names = new IdentityHashMap<>();
+        Set<String> taken = new HashSet<>();
+        for (Student student : students) {
+            String base = student.getStudentId().replaceAll("[^A-Za-z0-9_-]", "_");
+            String name = base;
+            for (int suffix = 2; !taken.add(name.toLowerCase(Locale.ROOT)); suffix++) {
+                name = base + "_" + suffix;
+            }
+            names.put(student, name + "_transcript.txt");
+        }
+        return names;
+    }
+}
@@ -0,0 +1,328 @@
+package com.chuka.gradesystem.service;
+
+import com.chuka.gradesystem.model.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of DataManager mutations.
+ *
+ * Each record is a one-byte operation code followed by the changed fields
+ * only, so appending costs I/O proportional to the change. Grades are
+ * logged by (studentId, courseCode) key and resolved against the target on
+ * replay. A truncated record at the tail (crash mid-append) ends replay
+ * and is cut off, so later appends follow the last complete record. Each
+ * record is written to the file in one write, and an append that fails is
+ * cut off again, so a torn record is never followed by more records.
+ *
+ * Durability: an append returns once its record has been forced to the
+ * storage device, so a record whose append succeeded survives a crash or
+ * power failure. A FileDataManager in write-behind mode acknowledges a
+ * change before its append runs; pendingWrites() tells when it is durable.
+ */
+public class WriteAheadLog implements Closeable {
+    // Written by earlier versions; lacks the enrolled courses
+    private static final byte PUT_STUDENT = 1;
+    private static final byte DELETE_STUDENT = 2;
+    private static final byte PUT_COURSE = 3;
+    private static final byte DELETE_COURSE = 4;
+    private static final byte PUT_GRADE = 5;
+    private static final byte DELETE_GRADE = 6;
+    private static final byte PUT_STUDENT_ENROLLED = 7;
+
+    private final File file;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(buffer);
+    private FileOutputStream out;
+    // Length of the file up to the last complete record
+    private long committedLength;
+    private int recordCount;
+    private volatile long bytesAppended;
+
+    public WriteAheadLog(String path) {
+        this.file = new File(path);
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return bytes appended since this log was opened, across resets
+     */
+    public long getBytesAppended() {
+        return bytesAppended;
+    }
+
+    public void appendSaveStudent(Student student) throws IOException {
+        appendSaveStudent(student, student.getEnrolledCourses());
+    }
+
+    /**
+     * @param enrolled the student's enrolled courses, as copied when the
+     *                 student was changed
+     */
+    public void appendSaveStudent(Student student, List<Course> enrolled) throws IOException {
+        DataOutputStream o = begin(PUT_STUDENT_ENROLLED);
+        writeString(o, student.getStudentId());
+        writeString(o, student.getId());
+        writeString(o, student.getName());
+        writeString(o, student.getEmail());
+        writeString(o, student.getPhone());
+        writeString(o, student.getDepartment());
+        o.writeInt(student.getYearOfStudy());
+        o.writeInt(enrolled.size());
+        for (Course course : enrolled) {
+            writeString(o, course.getCourseCode());
+        }
+        commit();
+    }
+
+    public void appendDeleteStudent(String studentId) throws IOException {
+        DataOutputStream o = begin(DELETE_STUDENT);
+        writeString(o, studentId);
+        commit();
+    }
+
+    public void appendSaveCourse(Course course) throws IOException {
+        DataOutputStream o = begin(PUT_COURSE);
+        writeString(o, course.getCourseCode());
+        writeString(o, course.getCourseName());
+        o.writeInt(course.getCredits());
+        writeString(o, course.getInstructor());
+        writeString(o, course.getDescription());
+        commit();
+    }
+
+    public void appendDeleteCourse(String courseCode) throws IOException {
+        DataOutputStream o = begin(DELETE_COURSE);
+        writeString(o, courseCode);
+        commit();
+    }
+
+    public void appendSaveGrade(Grade grade) throws IOException {
+        DataOutputStream o = begin(PUT_GRADE);
+        writeString(o, grade.getStudent().getStudentId());
+        writeString(o, grade.getCourse().getCourseCode());
+        o.writeDouble(grade.getScore());
+        writeString(o, grade.getSemester());
+        commit();
+    }
+
+    public void appendDeleteGrade(String studentId, String courseCode) throws IOException {
+        DataOutputStream o = begin(DELETE_GRADE);
+        writeString(o, studentId);
+        writeString(o, courseCode);
+        commit();
+    }
+
+    /**
+     * Re-applies every complete record to the target, in order.
+     * Existing students and courses are updated in place so that grades
+     * already referencing them stay linked.
+     * @return number of records applied
+     */
+    public int replay(DataManager target) throws IOException {
+        recordCount = 0;
+        if (!file.exists()) {
+            return 0;
+        }
+        long complete = 0;
+        boolean truncated = false;
+        try (CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+             DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    break;
+                }
+                try {
+                    apply((byte) op, in, target);
+                } catch (EOFException e) {
+                    System.err.println("Ignoring truncated journal record at end of " + file);
+                    truncated = true;
+                    break;
+                }
+                recordCount++;
+                complete = counter.count;
+            }
+        }
+        if (truncated) {
+            close();
+            try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                log.setLength(complete);
+            }
+        }
+        return recordCount;
+    }
+
+    /**
+     * Discards all records, typically right after a snapshot was written.
+     */
+    public void reset() throws IOException {
+        close();
+        new FileOutputStream(file).close();
+        recordCount = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void apply(byte op, DataInputStream in, DataManager target) throws IOException {
+        switch (op) {
+            case PUT_STUDENT:
+            case PUT_STUDENT_ENROLLED: {
+                String studentId = readString(in);
+                Student student = target.findStudentById(studentId);
+                if (student == null) {
+                    student = new Student();
+                    student.setStudentId(studentId);
+                }
+                student.setId(readString(in));
+                student.setName(readString(in));
+                student.setEmail(readString(in));
+                student.setPhone(readString(in));
+                student.setDepartment(readString(in));
+                student.setYearOfStudy(in.readInt());
+                if (op == PUT_STUDENT_ENROLLED) {
+                    int count = in.readInt();
+                    List<Course> enrolled = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        Course course = target.findCourseByCode(readString(in));
+                        if (course != null) {
+                            enrolled.add(course);
+                        }
+                    }
+                    student.setEnrolledCourses(enrolled);
+                }
+                target.saveStudent(student);
+                break;
+            }
+            case DELETE_STUDENT:
+                target.deleteStudent(readString(in));
+                break;
+            case PUT_COURSE: {
+                String courseCode = readString(in);
+                Course course = target.findCourseByCode(courseCode);
+                if (course == null) {
+                    course = new Course();
+                    course.setCourseCode(courseCode);
+                }
+                course.setCourseName(readString(in));
+                course.setCredits(in.readInt());
+                course.setInstructor(readString(in));
+                course.setDescription(readString(in));
+                target.saveCourse(course);
+                break;
+            }
+            case DELETE_COURSE:
+                target.deleteCourse(readString(in));
+                break;
+            case PUT_GRADE: {
+                Student student = target.findStudentById(readString(in));
+                Course course = target.findCourseByCode(readString(in));
+                double score = in.readDouble();
+                String semester = readString(in);
+                if (student != null && course != null) {
+                    target.saveGrade(new Grade(student, course, score, semester));
+                }
+                break;
+            }
+            case DELETE_GRADE: {
+                Student student = target.findStudentById(readString(in));
+                Course course = target.findCourseByCode(readString(in));
+                if (student != null && course != null) {
+                    target.deleteGrade(student, course);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + op + " in " + file);
+        }
+    }
+
+    private DataOutputStream begin(byte op) throws IOException {
+        buffer.reset();
+        record.writeByte(op);
+        return record;
+    }
+
+    // Appends the record begun last and forces it to disk; if that fails,
+    // cuts off what was written of it
+    private void commit() throws IOException {
+        if (out == null) {
+            out = new FileOutputStream(file, true);
+            committedLength = out.getChannel().size();
+        }
+        try {
+            buffer.writeTo(out);
+            out.getChannel().force(false);
+        } catch (IOException e) {
+            try {
+                close();
+                if (file.length() > committedLength) {
+                    try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                        log.setLength(committedLength);
+                    }
+                }
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+        committedLength += buffer.size();
+        recordCount++;
+        bytesAppended += buffer.size();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
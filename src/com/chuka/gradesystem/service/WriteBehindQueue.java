@@ -0,0 +1,174 @@
+package com.chuka.gradesystem.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs file writes for a DataManager on a single background writer thread.
+ *
+ * Callers capture a snapshot of the data on their own thread and hand it
+ * over with the code that writes it; the writer thread never reads the
+ * live collections. A whole-file write waits COALESCE_DELAY_MS before it
+ * starts, and a newer snapshot for the same file submitted in the meantime
+ * replaces the pending one, so a burst of edits costs one write per file.
+ * Ordered tasks (journal appends) are never coalesced and run in
+ * submission order.
+ *
+ * A synchronous queue runs everything on the calling thread, which keeps
+ * the plain blocking behaviour for non-interactive use.
+ */
+public class WriteBehindQueue {
+    static final long COALESCE_DELAY_MS = 200;
+
+    public interface Write<T> {
+        void write(T snapshot) throws IOException;
+    }
+
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    private static class Pending<T> {
+        final Write<T> write;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        T snapshot;
+
+        Pending(Write<T> write, T snapshot) {
+            this.write = write;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final ScheduledExecutorService writer;
+    // Guarded by this
+    private final Map<String, Pending<?>> pending = new HashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> latest = new HashMap<>();
+    private CompletableFuture<Boolean> lastTask = CompletableFuture.completedFuture(true);
+
+    /**
+     * @param background if false, writes run immediately on the calling thread
+     */
+    public WriteBehindQueue(boolean background) {
+        writer = background ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "data-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public boolean isBackground() {
+        return writer != null;
+    }
+
+    /**
+     * Schedules a whole-file write, merging it with a pending write of the same file.
+     * @param name identifies the file; also used in error messages
+     * @return completes with true once a snapshot at least as new as this one is written
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<Boolean> write(String name, T snapshot, Write<T> write) {
+        if (writer == null) {
+            CompletableFuture<Boolean> result = CompletableFuture.completedFuture(execute(name, write, snapshot));
+            latest.put(name, result);
+            return result;
+        }
+        Pending<T> entry = (Pending<T>) pending.get(name);
+        if (entry != null) {
+            entry.snapshot = snapshot;
+            return entry.result;
+        }
+        Pending<T> created = new Pending<>(write, snapshot);
+        pending.put(name, created);
+        latest.put(name, created.result);
+        writer.schedule(() -> runPending(name), COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        return created.result;
+    }
+
+    /**
+     * Schedules a task to run after every task submitted before it.
+     */
+    public synchronized CompletableFuture<Boolean> run(String name, Task task) {
+        if (writer == null) {
+            lastTask = CompletableFuture.completedFuture(execute(name, t -> task.run(), null));
+            return lastTask;
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        writer.execute(() -> result.complete(execute(name, t -> task.run(), null)));
+        lastTask = result;
+        return result;
+    }
+
+    /**
+     * @return completes once everything submitted so far is written; true if
+     *         the latest write of every file and the last task succeeded
+     */
+    public synchronized CompletableFuture<Boolean> whenWritten() {
+        List<CompletableFuture<Boolean>> waits = new ArrayList<>(latest.values());
+        waits.add(lastTask);
+        CompletableFuture<?>[] all = waits.toArray(new CompletableFuture<?>[0]);
+        return CompletableFuture.allOf(all).thenApply(v -> {
+            for (CompletableFuture<Boolean> wait : waits) {
+                if (!wait.join()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Like whenWritten, but starts pending writes without waiting for the
+     * coalescing delay.
+     */
+    public synchronized CompletableFuture<Boolean> flush() {
+        if (writer != null) {
+            for (String name : pending.keySet()) {
+                writer.execute(() -> runPending(name));
+            }
+        }
+        return whenWritten();
+    }
+
+    /**
+     * Writes whatever is pending and stops the writer thread.
+     */
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        flush().join();
+        writer.shutdownNow();
+    }
+
+    private void runPending(String name) {
+        Pending<?> entry;
+        synchronized (this) {
+            // Taken out of the map first so later submissions queue a new write
+            entry = pending.remove(name);
+        }
+        if (entry != null) {
+            entry.result.complete(executePending(name, entry));
+        }
+    }
+
+    private static <T> boolean executePending(String name, Pending<T> entry) {
+        return execute(name, entry.write, entry.snapshot);
+    }
+
+    private static <T> boolean execute(String name, Write<T> write, T snapshot) {
+        try {
+            write.write(snapshot);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
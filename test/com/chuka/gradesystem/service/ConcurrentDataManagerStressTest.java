@@ -0,0 +1,219 @@
+package com.chuka.gradesystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.Student;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Many threads upsert and delete grades at once, each on students of its
+ * own and all of them on a few shared students; afterwards every view of
+ * the grades must hold exactly the expected set.
+ */
+class ConcurrentDataManagerStressTest {
+    private static final int THREADS = 8;
+    private static final int OWN_STUDENTS = 10;
+    private static final int SHARED_STUDENTS = 4;
+    private static final int COURSES = 6;
+    private static final int OPERATIONS = 5_000;
+
+    private ConcurrentDataManager dataManager;
+    private ExecutorService executor;
+    private final List<Course> courses = new ArrayList<>();
+    private final List<Student> sharedStudents = new ArrayList<>();
+    private final List<List<Student>> ownStudents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataManager = new ConcurrentDataManager();
+        executor = Executors.newFixedThreadPool(THREADS + 1);
+        for (int c = 0; c < COURSES; c++) {
+            Course course = new Course("C" + c, "Course " + c, 1 + c % 4, "Instructor");
+            dataManager.saveCourse(course);
+            courses.add(course);
+        }
+        for (int s = 0; s < SHARED_STUDENTS; s++) {
+            sharedStudents.add(student("SH" + s));
+        }
+        for (int t = 0; t < THREADS; t++) {
+            List<Student> own = new ArrayList<>();
+            for (int s = 0; s < OWN_STUDENTS; s++) {
+                own.add(student("T" + t + "-" + s));
+            }
+            ownStudents.add(own);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentUpsertsAndDeletesLeaveConsistentViews() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<Map<GradeKey, Grade>>> writers = new ArrayList<>();
+        // Grades the threads saved to shared keys after the churn
+        Map<GradeKey, Set<Grade>> finalShared = new HashMap<>();
+        for (Student student : sharedStudents) {
+            for (Course course : courses) {
+                finalShared.put(key(student, course),
+                        Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>())));
+            }
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                Map<GradeKey, Grade> expected = new HashMap<>();
+                List<Student> own = ownStudents.get(thread);
+                barrier.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    boolean shared = random.nextInt(4) == 0;
+                    Student student = shared
+                            ? sharedStudents.get(random.nextInt(SHARED_STUDENTS))
+                            : own.get(random.nextInt(OWN_STUDENTS));
+                    Course course = courses.get(random.nextInt(COURSES));
+                    if (random.nextInt(3) == 0) {
+                        boolean deleted = dataManager.deleteGrade(student, course);
+                        if (!shared) {
+                            assertEquals(expected.remove(key(student, course)) != null, deleted);
+                        }
+                    } else {
+                        Grade grade = new Grade(student, course, random.nextInt(101), "2024/1");
+                        assertTrue(dataManager.saveGrade(grade));
+                        if (!shared) {
+                            expected.put(key(student, course), grade);
+                        }
+                    }
+                }
+                // Every thread ends by saving each shared key, so all of them are present
+                barrier.await();
+                for (Student student : sharedStudents) {
+                    for (Course course : courses) {
+                        Grade grade = new Grade(student, course, random.nextInt(101), "2024/2");
+                        finalShared.get(key(student, course)).add(grade);
+                        assertTrue(dataManager.saveGrade(grade));
+                    }
+                }
+                return expected;
+            }));
+        }
+        Future<Integer> reader = executor.submit(readSharedGradesWhile(writing));
+
+        Map<GradeKey, Grade> expected = new HashMap<>();
+        for (Future<Map<GradeKey, Grade>> writer : writers) {
+            expected.putAll(writer.get(60, TimeUnit.SECONDS));
+        }
+        writing.set(false);
+        assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+
+        Map<GradeKey, Grade> stored = byKey(dataManager.loadAllGrades());
+        assertEquals(expected.size() + finalShared.size(), stored.size());
+        for (Map.Entry<GradeKey, Grade> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), stored.get(entry.getKey()), entry.getKey().toString());
+        }
+        for (Map.Entry<GradeKey, Set<Grade>> entry : finalShared.entrySet()) {
+            assertTrue(entry.getValue().contains(stored.get(entry.getKey())), entry.getKey().toString());
+        }
+
+        assertSameGrades(stored, allStudents(), student -> dataManager.getGradesByStudent(student.getStudentId()));
+        assertSameGrades(stored, allStudents(), student -> student.getGrades());
+        List<Grade> byCourse = new ArrayList<>();
+        for (Course course : courses) {
+            byCourse.addAll(dataManager.getGradesByCourse(course.getCourseCode()));
+        }
+        assertEquals(stored, byKey(byCourse));
+        List<Grade> bySemester = new ArrayList<>(dataManager.getGradesBySemester("2024/1"));
+        bySemester.addAll(dataManager.getGradesBySemester("2024/2"));
+        assertEquals(stored, byKey(bySemester));
+    }
+
+    // Iterates the shared students' grade lists without a lock while they change
+    private Callable<Integer> readSharedGradesWhile(AtomicBoolean writing) {
+        return () -> {
+            int reads = 0;
+            while (writing.get() || reads == 0) {
+                for (Student student : sharedStudents) {
+                    Set<String> seen = new HashSet<>();
+                    for (Grade grade : student.getGrades()) {
+                        assertTrue(seen.add(grade.getCourse().getCourseCode()),
+                                "two grades for one course of " + student.getStudentId());
+                    }
+                    reads++;
+                }
+            }
+            return reads;
+        };
+    }
+
+    private interface GradesOf {
+        List<Grade> of(Student student);
+    }
+
+    private static void assertSameGrades(Map<GradeKey, Grade> stored, List<Student> students, GradesOf view) {
+        List<Grade> all = new ArrayList<>();
+        for (Student student : students) {
+            List<Grade> grades = view.of(student);
+            for (Grade grade : grades) {
+                assertSame(student, grade.getStudent());
+            }
+            all.addAll(grades);
+        }
+        Map<GradeKey, Grade> viewed = byKey(all);
+        assertEquals(stored.keySet(), viewed.keySet());
+        for (Map.Entry<GradeKey, Grade> entry : stored.entrySet()) {
+            assertSame(entry.getValue(), viewed.get(entry.getKey()), entry.getKey().toString());
+        }
+    }
+
+    private static Map<GradeKey, Grade> byKey(List<Grade> grades) {
+        Map<GradeKey, Grade> result = new HashMap<>();
+        for (Grade grade : grades) {
+            assertNull(result.put(GradeKey.of(grade), grade), "duplicate grade");
+        }
+        return result;
+    }
+
+    private List<Student> allStudents() {
+        List<Student> all = new ArrayList<>(sharedStudents);
+        ownStudents.forEach(all::addAll);
+        return all;
+    }
+
+    private Student student(String studentId) {
+        Student student = new Student(studentId, "Student " + studentId, studentId + "@example.com",
+                "0700000000", studentId, "Computing", 1);
+        assertTrue(dataManager.saveStudent(student));
+        return student;
+    }
+
+    private static GradeKey key(Student student, Course course) {
+        return new GradeKey(student.getStudentId(), course.getCourseCode());
+    }
+}
@@ -0,0 +1,57 @@
+package com.chuka.gradesystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Student;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GradeImportServiceTest {
+    private IndexedDataManager dataManager;
+    private GradeImportService importService;
+    private Student ann;
+    private Student ben;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        dataManager = new IndexedDataManager();
+        ann = new Student("1", "Ann Achieng", "ann@example.com", "0700000001", "CS001", "Computing", 1);
+        ben = new Student("2", "Ben Otieno", "ben@example.com", "0700000002", "CS002", "Computing", 2);
+        course = new Course("COMP 101", "Programming", 3, "Dr. Kamau");
+        dataManager.saveStudent(ann);
+        dataManager.saveStudent(ben);
+        dataManager.saveCourse(course);
+        importService = new GradeImportService(dataManager);
+    }
+
+    @Test
+    void headerAfterByteOrderMarkIsSkipped() throws IOException {
+        GradeImportService.Result result = importService.importCsv(new StringReader(
+                "\uFEFFstudentId,courseCode,score,semester\nCS001,COMP 101,72,2024/1\n"));
+        assertEquals(1, result.getImported());
+        assertTrue(result.getRejected().isEmpty());
+        assertEquals(72, dataManager.getGradesByStudent("CS001").get(0).getScore());
+    }
+
+    @Test
+    void rowsForStudentsDeletedWhileParsingAreRejected() throws IOException {
+        GradeImportService.Parsed parsed = importService.parse(new StringReader(
+                "CS001,COMP 101,72,2024/1\nCS002,COMP 101,65,2024/1\n"), importService.catalog());
+        dataManager.deleteStudent("CS002");
+
+        GradeImportService.Result result = importService.commit(parsed);
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected().size());
+        assertEquals(2, result.getRejected().get(0).getLineNumber());
+        assertSame(ann, dataManager.getGradesByStudent("CS001").get(0).getStudent());
+        assertNull(dataManager.findStudentById("CS002"));
+        assertTrue(dataManager.getGradesByStudent("CS002").isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package com.chuka.gradesystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.LetterGrade;
+import com.chuka.gradesystem.model.Student;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads data files written by the original FileDataManager with
+ * ObjectOutputStream; test-resources holds two students enrolled in two
+ * courses and three grades.
+ */
+class LegacyDataFilesTest {
+
+    @Test
+    void readsOriginalObjectStreamFiles() throws Exception {
+        IndexedDataManager lookup = new IndexedDataManager();
+        for (Course course : DataFiles.readCourses(legacy("courses.dat"))) {
+            lookup.saveCourse(course);
+        }
+        for (Student student : DataFiles.readStudents(legacy("students.dat"), lookup)) {
+            lookup.saveStudent(student);
+        }
+        List<Grade> grades = DataFiles.readGrades(legacy("grades.dat"), lookup);
+        DataFiles.linkGrades(grades, lookup);
+
+        assertEquals(2, lookup.loadAllCourses().size());
+        assertEquals(2, lookup.loadAllStudents().size());
+        assertEquals(3, grades.size());
+
+        Student ann = lookup.findStudentById("CS001");
+        assertEquals("Ann Achieng", ann.getName());
+        assertEquals("Computing", ann.getDepartment());
+        assertEquals(2, ann.getYearOfStudy());
+        assertEquals(2, ann.getEnrolledCourses().size());
+        assertEquals(2, ann.getGrades().size());
+        for (Grade grade : ann.getGrades()) {
+            assertSame(ann, grade.getStudent());
+            assertSame(lookup.findCourseByCode(grade.getCourse().getCourseCode()), grade.getCourse());
+        }
+
+        Grade failed = lookup.findStudentById("CS002").getGrades().get(0);
+        assertEquals(38, failed.getScore());
+        assertEquals(LetterGrade.F, failed.getLetterGrade());
+    }
+
+    private static File legacy(String name) throws URISyntaxException {
+        return new File(LegacyDataFilesTest.class.getResource("legacy/" + name).toURI());
+    }
+}
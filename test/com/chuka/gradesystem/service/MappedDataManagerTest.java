@@ -0,0 +1,62 @@
+package com.chuka.gradesystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.Student;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedDataManagerTest {
+    private final Course programming = new Course("COMP 101", "Programming", 3, "Dr. Kamau");
+    private final Course calculus = new Course("MATH 110", "Calculus", 4, "Dr. Njeri");
+
+    @BeforeEach
+    void clearDataDir() {
+        for (String path : new String[] {DataFiles.STUDENTS_FILE, DataFiles.COURSES_FILE,
+                DataFiles.GRADES_FILE, DataFiles.DATA_DIR + "grades.map"}) {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void deletingStudentAlsoDeletesGradesWhoseCourseIsGone() throws IOException {
+        try (MappedDataManager manager = new MappedDataManager()) {
+            manager.saveCourse(programming);
+            manager.saveCourse(calculus);
+            Student ann = student("CS001");
+            Student ben = student("CS002");
+            manager.saveStudent(ann);
+            manager.saveStudent(ben);
+            manager.saveGrade(new Grade(ann, programming, 72, "2024/1"));
+            manager.saveGrade(new Grade(ann, calculus, 55, "2024/1"));
+            manager.saveGrade(new Grade(ben, calculus, 61, "2024/1"));
+            assertTrue(manager.saveAllData());
+        }
+        // Calculus disappears from the course file, so its grades no longer materialize
+        DataFiles.writeCourses(DataFiles.COURSES_FILE, List.of(programming));
+        try (MappedDataManager manager = new MappedDataManager()) {
+            assertEquals(1, manager.getGradesByStudent("CS001").size());
+            assertTrue(manager.deleteStudent("CS001"));
+            assertTrue(manager.saveAllData());
+        }
+
+        // With the course back and the student ID reused, no old grade returns
+        DataFiles.writeCourses(DataFiles.COURSES_FILE, List.of(programming, calculus));
+        try (MappedDataManager manager = new MappedDataManager()) {
+            manager.saveStudent(student("CS001"));
+            assertTrue(manager.getGradesByStudent("CS001").isEmpty());
+            assertEquals(1, manager.getGradesByStudent("CS002").size());
+        }
+    }
+
+    private static Student student(String studentId) {
+        return new Student(studentId, "Student " + studentId, "student@example.com", "0700000000",
+                studentId, "Computing", 1);
+    }
+}
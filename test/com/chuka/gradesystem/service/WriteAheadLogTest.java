@@ -0,0 +1,88 @@
+package com.chuka.gradesystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.chuka.gradesystem.model.Course;
+import com.chuka.gradesystem.model.Grade;
+import com.chuka.gradesystem.model.Student;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replay of journals, including one whose last record was torn by a crash
+ * mid-append.
+ */
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornTailIsCutOffSoLaterAppendsReplay() throws IOException {
+        File file = dir.resolve("journal.log").toFile();
+        Student first = new Student("1", "Ann Achieng", "ann@example.com", "0700000001", "S001", "Computing", 1);
+        Course course = new Course("COMP 101", "Programming", 3, "Dr. Kamau");
+        try (WriteAheadLog log = new WriteAheadLog(file.getPath())) {
+            log.appendSaveStudent(first);
+            log.appendSaveCourse(course);
+            log.appendSaveGrade(new Grade(first, course, 72, "2024/1"));
+        }
+        long complete = file.length();
+        appendTornRecord(file, new Student("2", "Ben Otieno", "ben@example.com", "0700000002", "S002", "Computing", 2));
+
+        WriteAheadLog log = new WriteAheadLog(file.getPath());
+        IndexedDataManager target = new IndexedDataManager();
+        assertEquals(3, log.replay(target));
+        assertEquals(complete, file.length());
+
+        log.appendSaveStudent(new Student("3", "Cate Wanjiru", "cate@example.com", "0700000003", "S003", "Computing", 3));
+        log.close();
+
+        IndexedDataManager reloaded = new IndexedDataManager();
+        assertEquals(4, new WriteAheadLog(file.getPath()).replay(reloaded));
+        assertNotNull(reloaded.findStudentById("S003"));
+        assertEquals(1, reloaded.getGradesByStudent("S001").size());
+        assertEquals(2, reloaded.loadAllStudents().size());
+    }
+
+    @Test
+    void replayRestoresEnrolmentChanges() throws IOException {
+        File file = dir.resolve("journal.log").toFile();
+        Course programming = new Course("COMP 101", "Programming", 3, "Dr. Kamau");
+        Course calculus = new Course("MATH 110", "Calculus", 4, "Dr. Njeri");
+        Student student = new Student("1", "Ann Achieng", "ann@example.com", "0700000001", "S001", "Computing", 1);
+        student.enrollInCourse(programming);
+        try (WriteAheadLog log = new WriteAheadLog(file.getPath())) {
+            log.appendSaveCourse(programming);
+            log.appendSaveCourse(calculus);
+            log.appendSaveStudent(student);
+            student.getEnrolledCourses().remove(programming);
+            student.enrollInCourse(calculus);
+            log.appendSaveStudent(student);
+        }
+
+        IndexedDataManager target = new IndexedDataManager();
+        assertEquals(4, new WriteAheadLog(file.getPath()).replay(target));
+        Student replayed = target.findStudentById("S001");
+        assertEquals(1, replayed.getEnrolledCourses().size());
+        assertSame(target.findCourseByCode("MATH 110"), replayed.getEnrolledCourses().get(0));
+    }
+
+    // Appends all but the last bytes of a student record, as a crash would leave it
+    private static void appendTornRecord(File file, Student student) throws IOException {
+        Path scratch = Files.createTempFile(file.getParentFile().toPath(), "record", ".log");
+        try (WriteAheadLog log = new WriteAheadLog(scratch.toString())) {
+            log.appendSaveStudent(student);
+        }
+        byte[] record = Files.readAllBytes(scratch);
+        Files.write(file.toPath(), Arrays.copyOf(record, record.length - 3), StandardOpenOption.APPEND);
+    }
+}